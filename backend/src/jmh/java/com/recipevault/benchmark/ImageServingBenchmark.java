@@ -0,0 +1,126 @@
+package com.recipevault.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.recipevault.RecipevaultApplication;
+import com.recipevault.controller.ImageController;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.util.JwtUtil;
+
+/**
+ * Throughput of {@link ImageController} over HTTP against the setup it
+ * replaced, a resource handler with {@code setCachePeriod(0)} behind the JWT
+ * filter, with 16 concurrent clients. {@code revalidate} sends the image's
+ * ETag in If-None-Match, so it measures the 304 path without a body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+// The whole web stack has to be compiled before times settle, which takes a while
+@Warmup(iterations = 10, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(16)
+@Fork(1)
+public class ImageServingBenchmark {
+    @Param({"legacy", "controller", "revalidate"})
+    public String handler;
+
+    @Param({"200"})
+    public int sizeKb;
+
+    private ServletWebServerApplicationContext context;
+    private Path uploadDir;
+    private HttpClient client;
+    private HttpRequest request;
+    private int expectedStatus;
+
+    @Setup
+    public void setUp() throws Exception {
+        uploadDir = Files.createTempDirectory("image-bench");
+        String hash = "0f".repeat(32);
+        String key = "0f/0f/" + hash + ".jpg";
+        byte[] image = new byte[sizeKb * 1024];
+        new Random(42).nextBytes(image);
+        Files.createDirectories(uploadDir.resolve("0f/0f"));
+        Files.write(uploadDir.resolve(key), image);
+
+        context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(RecipevaultApplication.class, LegacyUploads.class)
+                .profiles("loadtest")
+                .run("--server.port=0", "--file.upload-dir=" + uploadDir, "--logging.level.root=WARN");
+        context.getBean(UserRepository.class).save(new UserInfo(null, "image-bench", "Image Bench", "hash", null));
+        String base = "http://localhost:" + context.getWebServer().getPort();
+        String bearer = "Bearer " + context.getBean(JwtUtil.class).generateToken("image-bench");
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + ("legacy".equals(handler) ? "/legacy-uploads/" : "/uploads/") + key))
+                .header("Authorization", bearer);
+        if ("revalidate".equals(handler)) {
+            builder.header("If-None-Match", "\"" + hash + "\"");
+        }
+        request = builder.build();
+        expectedStatus = "revalidate".equals(handler) ? 304 : 200;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        context.close();
+        try (var files = Files.walk(uploadDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int serve() throws Exception {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    /** The handler ImageController replaced, kept here only as the baseline. */
+    @Configuration
+    static class LegacyUploads {
+        @Bean
+        WebMvcConfigurer legacyUploadHandler(@Value("${file.upload-dir}") String uploadDir) {
+            return new WebMvcConfigurer() {
+                @Override
+                public void addResourceHandlers(ResourceHandlerRegistry registry) {
+                    registry.addResourceHandler("/legacy-uploads/**")
+                            .addResourceLocations("file:" + Paths.get(uploadDir).toAbsolutePath() + "/")
+                            .setCachePeriod(0);
+                }
+            };
+        }
+    }
+}
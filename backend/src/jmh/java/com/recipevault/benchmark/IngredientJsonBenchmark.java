@@ -0,0 +1,54 @@
+package com.recipevault.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Parsing the {@code ingredients} form field of a recipe create or update:
+ * a new {@link ObjectMapper} per call, as the controller used to do, against
+ * the reader it now builds once from the shared mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngredientJsonBenchmark {
+    private static final String INGREDIENTS = "[\"200 g spaghetti\",\"100 g guanciale\",\"3 egg yolks\",\"50 g pecorino romano\","
+            + "\"black pepper\",\"salt\",\"1 tbsp olive oil\",\"2 cloves garlic\"]";
+
+    private ObjectReader ingredientsReader;
+
+    @Setup
+    public void setUp() {
+        ingredientsReader = new ObjectMapper().readerForListOf(String.class);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<String> newMapperPerCall() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        return objectMapper.readValue(INGREDIENTS, List.class);
+    }
+
+    @Benchmark
+    public List<String> sharedReader() throws JsonProcessingException {
+        return ingredientsReader.readValue(INGREDIENTS);
+    }
+}
@@ -0,0 +1,97 @@
+package com.recipevault.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.recipevault.util.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Per-request cost of authenticating a bearer token: the old path (four
+ * full parses, each deriving a fresh key and parser) against a single parse
+ * with the precomputed parser and against a verified-token cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    private static final String SECRET = "RECIPE_VAULT_SECRET_KEY_123456789";
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private UserDetails principal;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 3_600_000, new SimpleMeterRegistry());
+        token = jwtUtil.generateToken("gordon");
+        jwtUtil.verify(token);
+        principal = User.withUsername("gordon").password("unused").authorities(List.of()).build();
+    }
+
+    // What a request cost before: filter extractUsername + validateToken (2 parses) + controller extractUsername
+    @Benchmark
+    public String legacyPerRequest() {
+        String username = legacyParse(token).getSubject();
+        boolean valid = legacyParse(token).getSubject().equals(username)
+                && !legacyParse(token).getExpiration().before(new Date());
+        return valid ? legacyParse(token).getSubject() : null;
+    }
+
+    @Benchmark
+    public Claims singleParse() {
+        return jwtUtil.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims cachedVerify() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("gordon");
+    }
+
+    // Full parse, no cache
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    // What JwtAuthFilter calls; served from the verified-token cache after the first request
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, principal);
+    }
+
+    private Claims legacyParse(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
@@ -0,0 +1,101 @@
+package com.recipevault.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.recipevault.model.CanonicalIngredient;
+import com.recipevault.model.Difficulty;
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.service.PantryMatchIndex;
+import com.recipevault.util.IngredientNormalizer;
+import com.recipevault.util.IngredientNormalizer.ParsedLine;
+
+/**
+ * {@link PantryMatchIndex#match} on a synthetic catalogue, cycling through a
+ * thousand pantries of 15 items. Ingredient popularity is skewed so staples
+ * appear in most recipes, as they do in real ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PantryMatchBenchmark {
+    private static final int VOCABULARY = 2_000;
+    private static final int PANTRIES = 1_000;
+
+    @Param({"100000"})
+    public int recipes;
+
+    @Param({"0", "1", "2"})
+    public int maxMissing;
+
+    private PantryMatchIndex index;
+    private List<List<String>> pantries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] names = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            names[i] = "ingredient" + i;
+        }
+
+        index = new PantryMatchIndex(null, null);
+        for (long id = 1; id <= recipes; id++) {
+            int size = 3 + random.nextInt(10);
+            String[] ingredients = new String[size];
+            for (int j = 0; j < size; j++) {
+                ingredients[j] = names[(int) (VOCABULARY * Math.pow(random.nextDouble(), 3))];
+            }
+            index.index(recipe(id, ingredients));
+        }
+
+        pantries = new ArrayList<>(PANTRIES);
+        for (int q = 0; q < PANTRIES; q++) {
+            List<String> pantry = new ArrayList<>();
+            for (int j = 0; j < 15; j++) {
+                pantry.add(names[(int) (VOCABULARY * Math.pow(random.nextDouble(), 2))]);
+            }
+            pantries.add(pantry);
+        }
+    }
+
+    @Benchmark
+    public int match() {
+        next = next == PANTRIES - 1 ? 0 : next + 1;
+        return index.match(pantries.get(next), maxMissing, 20).size();
+    }
+
+    private static Recipe recipe(long id, String... ingredientNames) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setTitle("Recipe " + id);
+        recipe.setDifficulty(Difficulty.EASY);
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (String name : ingredientNames) {
+            ParsedLine line = IngredientNormalizer.parse(name);
+            ingredients.add(new Ingredient(recipe, ingredients.size(), new CanonicalIngredient(line.key(), line.name()),
+                    line.quantity(), line.name()));
+        }
+        recipe.setIngredients(ingredients);
+        return recipe;
+    }
+}
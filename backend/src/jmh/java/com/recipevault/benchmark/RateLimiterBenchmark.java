@@ -0,0 +1,99 @@
+package com.recipevault.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.recipevault.filter.RateLimitFilter;
+import com.recipevault.util.TokenBuckets;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.servlet.FilterChain;
+
+/**
+ * What the rate limiter adds to a request it lets through: a bucket update
+ * on one hot key and across 100k keys, and the whole filter (two buckets,
+ * policy and key building) against calling the chain directly. Limits are
+ * set so high that nothing is ever refused.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+    private static final int KEYS = 100_000;
+    private static final TokenBuckets.Rate UNLIMITED = TokenBuckets.Rate.perMinute(Integer.MAX_VALUE, 1_000_000);
+
+    private final FilterChain chain = (request, response) -> { };
+
+    private TokenBuckets buckets;
+    private String[] keys;
+    private int next;
+    private RateLimitFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        buckets = new TokenBuckets(1_000_000, UNLIMITED.refill());
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "0:c:10.0." + (i >> 8) + "." + (i & 0xFF);
+            buckets.tryAcquire(keys[i], UNLIMITED);
+        }
+
+        filter = new RateLimitFilter(true, Integer.MAX_VALUE, 1_000_000, Integer.MAX_VALUE, 1_000_000,
+                Integer.MAX_VALUE, 1_000_000, 4, 1_000_000, new SimpleMeterRegistry());
+        request = new MockHttpServletRequest("GET", "/recipes");
+        request.setRemoteAddr("203.0.113.7");
+        response = new MockHttpServletResponse();
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("gordon", null, List.of()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public long bucketHotKey() {
+        return buckets.tryAcquire("0:u:gordon", UNLIMITED);
+    }
+
+    @Benchmark
+    public long bucketAcrossKeys() {
+        next = next == KEYS - 1 ? 0 : next + 1;
+        return buckets.tryAcquire(keys[next], UNLIMITED);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse chainOnly() throws Exception {
+        chain.doFilter(request, response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterAccepted() throws Exception {
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,95 @@
+package com.recipevault.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import com.recipevault.RecipevaultApplication;
+import com.recipevault.dto.RecipeRequestDTO;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.service.RecipeService;
+import com.recipevault.util.JwtUtil;
+
+/**
+ * GET /recipes/{id} over HTTP with the second-level cache on and off, cycling
+ * through every seeded recipe so all of them are warm. The app runs with the
+ * loadtest profile, i.e. on in-memory H2, so the difference shown is only
+ * the SQL, JDBC and entity loading the cache skips; against MySQL each
+ * avoided statement is also a network round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// The whole web stack has to be compiled before times settle, which takes a while
+@Warmup(iterations = 20, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class RecipeDetailBenchmark {
+    private static final int RECIPES = 1_000;
+
+    @Param({"false", "true"})
+    public boolean secondLevelCache;
+
+    private ServletWebServerApplicationContext context;
+    private HttpClient client;
+    private HttpRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(RecipevaultApplication.class)
+                .profiles("loadtest")
+                .run("--server.port=0", "--cache.second-level.enabled=" + secondLevelCache);
+        context.getBean(UserRepository.class).save(new UserInfo(null, "detail-bench", "Detail Bench", "hash", null));
+        RecipeService recipeService = context.getBean(RecipeService.class);
+
+        String base = "http://localhost:" + context.getWebServer().getPort() + "/recipes/";
+        String bearer = "Bearer " + context.getBean(JwtUtil.class).generateToken("detail-bench");
+        requests = new HttpRequest[RECIPES];
+        for (int i = 0; i < RECIPES; i++) {
+            RecipeRequestDTO recipe = new RecipeRequestDTO();
+            recipe.setTitle("Carbonara " + i);
+            recipe.setDifficulty("MEDIUM");
+            recipe.setInstructions("Cook the pasta, crisp the guanciale, toss off the heat with egg and cheese.");
+            recipe.setIngredients(List.of("200 g spaghetti", "100 g guanciale", "3 egg yolks", "50 g pecorino romano",
+                    "black pepper", "salt", "1 tbsp olive oil", "2 cloves garlic"));
+            Long id = recipeService.createRecipe("detail-bench", recipe).getId();
+            requests[i] = HttpRequest.newBuilder(URI.create(base + id)).header("Authorization", bearer).build();
+        }
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int detail() throws Exception {
+        next = next == RECIPES - 1 ? 0 : next + 1;
+        HttpResponse<byte[]> response = client.send(requests[next], HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(requests[next].uri() + " returned " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,102 @@
+package com.recipevault.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipevault.dto.RecipePageDTO;
+import com.recipevault.dto.RecipeResponseDTO;
+import com.recipevault.model.CanonicalIngredient;
+import com.recipevault.model.Difficulty;
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.model.UserInfo;
+import com.recipevault.util.IngredientNormalizer;
+import com.recipevault.util.IngredientNormalizer.ParsedLine;
+
+/**
+ * Cost of turning a page of recipes into the listing response: mapping to
+ * {@link RecipeResponseDTO} and serialising the page with a mapper configured
+ * like Spring Boot's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeSerializationBenchmark {
+    private static final List<String> INGREDIENTS = List.of(
+            "200 g spaghetti", "100 g guanciale", "3 egg yolks", "50 g pecorino romano", "black pepper", "salt",
+            "1 tbsp olive oil", "2 cloves garlic");
+
+    @Param({"1", "20", "100"})
+    public int recipes;
+
+    private List<Recipe> page;
+    private List<RecipeResponseDTO> dtos;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        UserInfo user = new UserInfo(1L, "gino", "Gino D'Acampo", "hash", null);
+        page = new ArrayList<>();
+        for (int i = 0; i < recipes; i++) {
+            Recipe recipe = new Recipe();
+            recipe.setId((long) i);
+            recipe.setTitle("Carbonara " + i);
+            recipe.setDifficulty(Difficulty.MEDIUM);
+            recipe.setInstructions("Boil the pasta. Crisp the guanciale. Toss off the heat with the eggs and cheese.");
+            recipe.setImageUrl("/uploads/ab/cd/" + i + ".jpg");
+            recipe.setCreatedDate(LocalDateTime.of(2025, 1, 1, 12, 0));
+            recipe.setUser(user);
+            List<Ingredient> ingredients = new ArrayList<>();
+            for (String line : INGREDIENTS) {
+                ParsedLine parsed = IngredientNormalizer.parse(line);
+                ingredients.add(new Ingredient(recipe, ingredients.size(),
+                        new CanonicalIngredient(parsed.key(), parsed.name()), parsed.quantity(), parsed.name()));
+            }
+            recipe.setIngredients(ingredients);
+            recipe.setIngredientCount(ingredients.size());
+            page.add(recipe);
+        }
+        dtos = toDtos();
+    }
+
+    @Benchmark
+    public List<RecipeResponseDTO> fromRecipe() {
+        return toDtos();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new RecipePageDTO(dtos, null));
+    }
+
+    // What the listing endpoint does per page
+    @Benchmark
+    public byte[] fromRecipeAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new RecipePageDTO(toDtos(), null));
+    }
+
+    private List<RecipeResponseDTO> toDtos() {
+        return page.stream().map(RecipeResponseDTO::fromRecipe).toList();
+    }
+}
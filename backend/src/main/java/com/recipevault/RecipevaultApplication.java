@@ -2,8 +2,10 @@ package com.recipevault;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "com.recipevault")
+@EnableScheduling
 public class RecipevaultApplication {
 
 	public static void main(String[] args) {
@@ -6,11 +6,12 @@ import com.recipevault.model.Recipe;
 import com.recipevault.model.UserInfo;
 import com.recipevault.repository.RecipeRepository;
 import com.recipevault.repository.UserRepository;
+import com.recipevault.service.IngredientDictionary;
+import com.recipevault.service.PasswordHasher;
 
 import jakarta.annotation.PostConstruct;
 
 import org.springframework.context.annotation.Profile;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -20,23 +21,26 @@ import java.util.List;
 public class DataSeeder {
     private final RecipeRepository recipeRepository;
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final IngredientDictionary dictionary;
+    private final PasswordHasher passwordHasher;
 
-    public DataSeeder(RecipeRepository recipeRepository, UserRepository userRepository) {
+    public DataSeeder(RecipeRepository recipeRepository, UserRepository userRepository, IngredientDictionary dictionary,
+                      PasswordHasher passwordHasher) {
         this.recipeRepository = recipeRepository;
         this.userRepository = userRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.dictionary = dictionary;
+        this.passwordHasher = passwordHasher;
     }
 
     @PostConstruct
     public void seedData() {
         if (recipeRepository.count() == 0) {
             // Create Users
-            UserInfo user1 = new UserInfo(null, "gino","Gino D'Acampo", passwordEncoder.encode("password123"), null);
-            UserInfo user2 = new UserInfo(null, "gordon","Gordon Ramsay", passwordEncoder.encode("password123"), null);
-            UserInfo user3 = new UserInfo(null, "roger","Uncle Roger", passwordEncoder.encode("password123"), null);
-            UserInfo user4 = new UserInfo(null, "joshua","Joshua Weissman", passwordEncoder.encode("password123"), null);
-            UserInfo user5 = new UserInfo(null, "jamie","Jamie Oliver", passwordEncoder.encode("password123"), null);
+            UserInfo user1 = new UserInfo(null, "gino","Gino D'Acampo", passwordHasher.encode("password123"), null);
+            UserInfo user2 = new UserInfo(null, "gordon","Gordon Ramsay", passwordHasher.encode("password123"), null);
+            UserInfo user3 = new UserInfo(null, "roger","Uncle Roger", passwordHasher.encode("password123"), null);
+            UserInfo user4 = new UserInfo(null, "joshua","Joshua Weissman", passwordHasher.encode("password123"), null);
+            UserInfo user5 = new UserInfo(null, "jamie","Jamie Oliver", passwordHasher.encode("password123"), null);
 
             userRepository.saveAll(List.of(user1, user2, user3, user4, user5));
 
@@ -49,13 +53,9 @@ public class DataSeeder {
             recipe1.setImageUrl("/uploads/carbonara.jpg");
             recipe1.setUser(user1);
 
-            List<Ingredient> ingredients1 = List.of(
-                new Ingredient(null, "Spagetti Noodles", recipe1),
-                new Ingredient(null, "Guanciale", recipe1),
-                new Ingredient(null, "Egg", recipe1),
-                new Ingredient(null, "Parmigiano Reggiano", recipe1)
-            );
+            List<Ingredient> ingredients1 = dictionary.link(recipe1, List.of("Spagetti Noodles", "Guanciale", "Egg", "Parmigiano Reggiano"));
             recipe1.setIngredients(ingredients1);
+            recipe1.setIngredientCount(ingredients1.size());
 
             // Create second recipe with ingredients
             Recipe recipe2 = new Recipe();
@@ -65,12 +65,9 @@ public class DataSeeder {
             recipe2.setImageUrl("/uploads/scrambled-eggs.jpg");
             recipe2.setUser(user2);
 
-            List<Ingredient> ingredients2 = List.of(
-                new Ingredient(null, "Eggs", recipe2),
-                new Ingredient(null, "Butter", recipe2),
-                new Ingredient(null, "Chives", recipe2)
-            );
+            List<Ingredient> ingredients2 = dictionary.link(recipe2, List.of("Eggs", "Butter", "Chives"));
             recipe2.setIngredients(ingredients2);
+            recipe2.setIngredientCount(ingredients2.size());
 
             // Create third recipe with ingredients
             Recipe recipe3 = new Recipe();
@@ -80,12 +77,9 @@ public class DataSeeder {
             recipe3.setImageUrl("/uploads/fried-rice.jpg");
             recipe3.setUser(user3);
 
-            List<Ingredient> ingredients3 = List.of(
-                new Ingredient(null, "Overnight Rice", recipe3),
-                new Ingredient(null, "Kampung Eggs", recipe3),
-                new Ingredient(null, "Spring Onion", recipe3)
-            );
+            List<Ingredient> ingredients3 = dictionary.link(recipe3, List.of("Overnight Rice", "Kampung Eggs", "Spring Onion"));
             recipe3.setIngredients(ingredients3);
+            recipe3.setIngredientCount(ingredients3.size());
 
 
             // Create fourth recipe with ingredients
@@ -96,13 +90,9 @@ public class DataSeeder {
             recipe4.setImageUrl("/uploads/pizza.jpg");
             recipe4.setUser(user4);
 
-            List<Ingredient> ingredients4 = List.of(
-                new Ingredient(null, "Flour", recipe4),
-                new Ingredient(null, "Tomato", recipe4),
-                new Ingredient(null, "Cheese", recipe4),
-                new Ingredient(null, "Pepperoni", recipe4)
-            );
+            List<Ingredient> ingredients4 = dictionary.link(recipe4, List.of("Flour", "Tomato", "Cheese", "Pepperoni"));
             recipe4.setIngredients(ingredients4);
+            recipe4.setIngredientCount(ingredients4.size());
 
 
             // Create fifth recipe with ingredients
@@ -113,12 +103,9 @@ public class DataSeeder {
             recipe5.setImageUrl("/uploads/pancakes.jpg");
             recipe5.setUser(user5);
 
-            List<Ingredient> ingredients5 = List.of(
-                new Ingredient(null, "Flour", recipe5),
-                new Ingredient(null, "Eggs", recipe5),
-                new Ingredient(null, "Milk", recipe5)
-            );
+            List<Ingredient> ingredients5 = dictionary.link(recipe5, List.of("Flour", "Eggs", "Milk"));
             recipe5.setIngredients(ingredients5);
+            recipe5.setIngredientCount(ingredients5.size());
 
             // Save recipes along with ingredients
             recipeRepository.saveAll(List.of(recipe1, recipe2, recipe3, recipe4, recipe5));
@@ -0,0 +1,58 @@
+package com.recipevault.config;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.recipevault.storage.ImageStore;
+import com.recipevault.storage.LocalImageStore;
+import com.recipevault.storage.S3ImageStore;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+/** Chooses the image backend with image.store=local (default) or image.store=s3. */
+@Configuration
+public class ImageStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "image.store", havingValue = "local", matchIfMissing = true)
+    public ImageStore localImageStore(@Value("${file.upload-dir}") String uploadDir) {
+        return new LocalImageStore(uploadDir);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "image.store", havingValue = "s3")
+    public ImageStore s3ImageStore(
+            @Value("${image.s3.bucket}") String bucket,
+            @Value("${image.s3.region:ap-southeast-2}") String region,
+            @Value("${image.s3.endpoint:}") String endpoint,
+            @Value("${image.s3.access-key:}") String accessKey,
+            @Value("${image.s3.secret-key:}") String secretKey) {
+        AwsCredentialsProvider credentials = accessKey.isEmpty()
+                ? DefaultCredentialsProvider.builder().build()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                // Plain signed payloads keep us compatible with minimal S3 implementations
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .responseChecksumValidation(ResponseChecksumValidation.WHEN_REQUIRED);
+        if (!endpoint.isEmpty()) {
+            // S3-compatible servers (MinIO, local stand-ins) generally need path-style addressing
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+        return new S3ImageStore(builder.build(), bucket);
+    }
+}
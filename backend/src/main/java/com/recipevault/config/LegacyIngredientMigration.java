@@ -0,0 +1,127 @@
+package com.recipevault.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.recipevault.util.IngredientNormalizer;
+import com.recipevault.util.IngredientNormalizer.ParsedLine;
+
+/**
+ * Migration V7: moves recipes off the old free-text {@code ingredients}
+ * table. Each line is parsed as {@link com.recipevault.service.IngredientDictionary}
+ * would, written to {@code canonical_ingredients} and
+ * {@code recipe_ingredients}, and the old table is dropped. It runs before
+ * JPA starts, so it works on Flyway's connection alone, numbers the new rows
+ * itself and then moves their id sequences past them.
+ */
+@Component
+public class LegacyIngredientMigration implements JavaMigration {
+    private static final Logger logger = LoggerFactory.getLogger(LegacyIngredientMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("7");
+    }
+
+    @Override
+    public String getDescription() {
+        return "legacy ingredients";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        long start = System.nanoTime();
+        // normalized name -> dictionary id
+        Map<String, Long> dictionary = new HashMap<>();
+        long nextIngredientId = 1;
+        long nextLineId = 1;
+        int lines = 0;
+
+        try (Statement select = connection.createStatement();
+             PreparedStatement insertIngredient = connection.prepareStatement(
+                     "INSERT INTO canonical_ingredients (id, normalized_name, name) VALUES (?, ?, ?)");
+             PreparedStatement insertLine = connection.prepareStatement(
+                     "INSERT INTO recipe_ingredients (id, recipe_id, ingredient_id, quantity, name, position) VALUES (?, ?, ?, ?, ?, ?)")) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = select.executeQuery("SELECT recipe_id, ingredient_name FROM ingredients ORDER BY recipe_id, id")) {
+                long recipeId = -1;
+                int position = 0;
+                while (rs.next()) {
+                    if (rs.getLong(1) != recipeId) {
+                        recipeId = rs.getLong(1);
+                        position = 0;
+                    }
+                    ParsedLine line = IngredientNormalizer.parse(rs.getString(2));
+                    Long ingredientId = dictionary.get(line.key());
+                    if (ingredientId == null) {
+                        ingredientId = nextIngredientId++;
+                        dictionary.put(line.key(), ingredientId);
+                        insertIngredient.setLong(1, ingredientId);
+                        insertIngredient.setString(2, line.key());
+                        insertIngredient.setString(3, line.name());
+                        insertIngredient.addBatch();
+                    }
+                    insertLine.setLong(1, nextLineId++);
+                    insertLine.setLong(2, recipeId);
+                    insertLine.setLong(3, ingredientId);
+                    insertLine.setString(4, line.quantity());
+                    insertLine.setString(5, line.name());
+                    insertLine.setInt(6, position++);
+                    insertLine.addBatch();
+                    if (++lines % BATCH_SIZE == 0) {
+                        // Dictionary rows first, for the foreign key
+                        insertIngredient.executeBatch();
+                        insertLine.executeBatch();
+                    }
+                }
+            }
+            insertIngredient.executeBatch();
+            insertLine.executeBatch();
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE ingredients");
+        }
+        moveSequencePast(connection, "canonical_ingredients_seq", nextIngredientId);
+        moveSequencePast(connection, "ingredients_seq", nextLineId);
+        logger.info("Migrated {} ingredient lines into {} dictionary entries in {} ms",
+                lines, dictionary.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // pooled-lo takes the stored value as the next free id
+    private static void moveSequencePast(Connection connection, String sequence, long nextId) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        try (Statement statement = connection.createStatement()) {
+            if ("MySQL".equals(product)) {
+                statement.executeUpdate("UPDATE " + sequence + " SET next_val = " + nextId);
+            } else {
+                statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + nextId);
+            }
+        }
+    }
+}
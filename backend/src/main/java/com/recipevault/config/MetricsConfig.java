@@ -0,0 +1,76 @@
+package com.recipevault.config;
+
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.recipevault.service.ImageVariantService;
+import com.recipevault.service.IngredientDictionary;
+import com.recipevault.service.UploadGarbageCollector;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the stats our services already keep. HTTP timers, Hikari,
+ * Hibernate statistics, JVM and cache metrics come from Spring Boot; the
+ * timed hot paths (JWT, BCrypt, uploads, import, export) register their own
+ * meters. Every tag here has a fixed set of values.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder imageVariantMetrics(ImageVariantService imageVariants) {
+        return registry -> {
+            Gauge.builder("images.variants.queue", imageVariants, service -> service.stats().queueDepth())
+                    .description("Images waiting for variant generation").register(registry);
+            Gauge.builder("images.variants.active", imageVariants, service -> service.stats().activeWorkers())
+                    .description("Images being resized right now").register(registry);
+            jobCounter(registry, imageVariants, "completed", service -> service.stats().completed());
+            jobCounter(registry, imageVariants, "failed", service -> service.stats().failed());
+            jobCounter(registry, imageVariants, "rejected", service -> service.stats().rejected());
+        };
+    }
+
+    @Bean
+    public MeterBinder ingredientDictionaryMetrics(IngredientDictionary dictionary) {
+        return registry -> Gauge.builder("ingredients.dictionary.size", dictionary, IngredientDictionary::size)
+                .description("Canonical ingredients held in memory").register(registry);
+    }
+
+    // The collector only exists for the local store with GC enabled; its gauges describe the last finished pass
+    @Bean
+    public MeterBinder uploadGarbageCollectorMetrics(ObjectProvider<UploadGarbageCollector> collector) {
+        return registry -> collector.ifAvailable(gc -> {
+            lastPassGauge(registry, gc, "uploads.gc.last.scanned", "files", report -> report.scannedFiles());
+            lastPassGauge(registry, gc, "uploads.gc.last.quarantined", "files", report -> report.quarantinedFiles());
+            lastPassGauge(registry, gc, "uploads.gc.last.deleted", "files", report -> report.deletedFiles());
+            lastPassGauge(registry, gc, "uploads.gc.last.reclaimed", "bytes", report -> report.reclaimedBytes());
+            lastPassGauge(registry, gc, "uploads.gc.last.duration", "milliseconds", report -> report.durationMillis());
+        });
+    }
+
+    @Bean
+    public MeterBinder virtualThreadPinningMetrics(ObjectProvider<VirtualThreadPinningMonitor> monitor) {
+        return registry -> monitor.ifAvailable(pinning ->
+                FunctionCounter.builder("jvm.threads.virtual.pinned", pinning, VirtualThreadPinningMonitor::pinnedCount)
+                        .description("Virtual threads pinned to their carrier past the threshold").register(registry));
+    }
+
+    private static void jobCounter(MeterRegistry registry, ImageVariantService imageVariants,
+                                   String outcome, ToDoubleFunction<ImageVariantService> count) {
+        FunctionCounter.builder("images.variants.jobs", imageVariants, count)
+                .tag("outcome", outcome).register(registry);
+    }
+
+    private static void lastPassGauge(MeterRegistry registry, UploadGarbageCollector gc, String name,
+                                      String unit, ToDoubleFunction<UploadGarbageCollector.Report> value) {
+        Gauge.builder(name, gc, collector -> collector.lastReport() == null ? Double.NaN : value.applyAsDouble(collector.lastReport()))
+                .baseUnit(unit).register(registry);
+    }
+}
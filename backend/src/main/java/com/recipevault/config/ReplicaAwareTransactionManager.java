@@ -0,0 +1,41 @@
+package com.recipevault.config;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * JPA transactions that tell {@link ReplicaRoutingDataSource} where their
+ * connection should come from: read-only ones labelled
+ * {@link ReplicaRoutingDataSource#REPLICA} may use a replica, everything else
+ * uses the primary. Committed writes are reported so that readers see them.
+ */
+class ReplicaAwareTransactionManager extends JpaTransactionManager {
+    private final ReplicaRoutingDataSource routing;
+
+    ReplicaAwareTransactionManager(ReplicaRoutingDataSource routing) {
+        this.routing = routing;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        routing.requestReplica(definition.isReadOnly()
+                && definition instanceof TransactionAttribute attribute
+                && attribute.getLabels().contains(ReplicaRoutingDataSource.REPLICA));
+        try {
+            // Beginning takes the connection, so the choice is made by the time this returns
+            super.doBegin(transaction, definition);
+        } finally {
+            routing.clearRequest();
+        }
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        super.doCommit(status);
+        if (!status.isReadOnly()) {
+            routing.recordWrite();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.recipevault.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read replicas, when {@code datasource.replicas.urls} lists any. The
+ * application's DataSource becomes a {@link ReplicaRoutingDataSource} over
+ * the usual {@code spring.datasource} pool and one read-only pool per
+ * replica, and transactions go through {@link ReplicaAwareTransactionManager}.
+ * Without the property nothing here exists and everything uses the primary.
+ */
+@Configuration
+@ConditionalOnProperty("datasource.replicas.urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource dataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                               @Value("${datasource.replicas.urls}") List<String> urls,
+                                               @Value("${datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                               @Value("${datasource.replicas.password:${spring.datasource.password:}}") String password,
+                                               @Value("${datasource.replicas.pool-size:10}") int poolSize,
+                                               @Value("${datasource.replicas.health-interval:5s}") Duration healthInterval,
+                                               @Value("${datasource.replicas.max-lag:2s}") Duration maxLag,
+                                               @Value("${datasource.replicas.read-your-writes:10s}") Duration readYourWrites,
+                                               MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (i + 1));
+            config.setJdbcUrl(urls.get(i).trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setDriverClassName(properties.determineDriverClassName());
+            config.setMaximumPoolSize(poolSize);
+            config.setReadOnly(true);
+            // Don't hold up startup on a replica that is down; the health check keeps it out of rotation
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, readYourWrites,
+                ReplicaDataSourceConfig::currentUser, meterRegistry);
+        routing.start(healthInterval);
+        return routing;
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(ReplicaRoutingDataSource dataSource,
+                                                         ObjectProvider<TransactionManagerCustomizers> customizers) {
+        ReplicaAwareTransactionManager transactionManager = new ReplicaAwareTransactionManager(dataSource);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
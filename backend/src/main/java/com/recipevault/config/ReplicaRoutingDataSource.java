@@ -0,0 +1,240 @@
+package com.recipevault.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hands out primary connections, except to transactions that
+ * {@link ReplicaAwareTransactionManager} has marked as replica reads: those
+ * go round-robin to a healthy replica, unless the current user wrote within
+ * the read-your-writes window or anyone wrote within the last max-lag. The
+ * second rule keeps a replica from serving rows older than the ETag
+ * counters in {@code RecipeVersions}, which move as soon as a write commits.
+ * A replica that fails its health check, lags by more than max-lag or
+ * refuses a connection is skipped until it passes a check again; with none
+ * left, replica reads use the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    /** Transaction label for reads a replica may serve, on a {@code readOnly} {@code @Transactional}. */
+    public static final String REPLICA = "replica";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagNanos;
+    private final Supplier<String> currentUser;
+    private final LongSupplier nanoClock;
+    private final Cache<String, Boolean> recentWriters;
+    private final ThreadLocal<Boolean> replicaRequested = new ThreadLocal<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile long lastWriteAt;
+
+    // Labelled reads by where they went; fallbacks are replica connections that failed
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+    private final Counter fallbacks;
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    /**
+     * @param replicas by name (used in logs), tried in this order
+     * @param currentUser who is asking, or null; read-your-writes is keyed on it
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag, Duration readYourWrites,
+                                    Supplier<String> currentUser, MeterRegistry meterRegistry) {
+        this(primary, replicas, maxLag, readYourWrites, currentUser, meterRegistry, System::nanoTime);
+    }
+
+    ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag, Duration readYourWrites,
+                             Supplier<String> currentUser, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.maxLagNanos = maxLag.toNanos();
+        this.currentUser = currentUser;
+        this.nanoClock = nanoClock;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWrites)
+                .ticker(nanoClock::getAsLong)
+                .build();
+        this.lastWriteAt = nanoClock.getAsLong() - maxLagNanos - 1;
+
+        this.replicaReads = reads(meterRegistry, "replica");
+        this.primaryReads = reads(meterRegistry, "primary");
+        this.fallbacks = Counter.builder("datasource.replica.fallbacks")
+                .description("Replica connections that failed and were replaced by the primary")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replicas.healthy", this.replicas, list -> list.stream().filter(r -> r.healthy).count())
+                .description("Replicas currently taking reads")
+                .register(meterRegistry);
+    }
+
+    /** Checks every replica now, then again every {@code interval} in the background. */
+    public void start(Duration interval) {
+        checkReplicas();
+        healthChecks.scheduleWithFixedDelay(this::checkReplicas, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (Boolean.TRUE.equals(replicaRequested.get())) {
+            Replica replica = pickReplica();
+            if (replica != null) {
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replicaReads.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    fallbacks.increment();
+                    markDown(replica, e.getMessage());
+                }
+            }
+            primaryReads.increment();
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    // Set while a transaction begins, which is when it takes its connection
+    void requestReplica(boolean replica) {
+        replicaRequested.set(replica);
+    }
+
+    void clearRequest() {
+        replicaRequested.remove();
+    }
+
+    /** A write has committed: its user reads from the primary for a while, and so does everyone for max-lag. */
+    void recordWrite() {
+        lastWriteAt = nanoClock.getAsLong();
+        String user = currentUser.get();
+        if (user != null) {
+            recentWriters.put(user, Boolean.TRUE);
+        }
+    }
+
+    private Replica pickReplica() {
+        if (nanoClock.getAsLong() - lastWriteAt <= maxLagNanos) {
+            return null;
+        }
+        String user = currentUser.get();
+        if (user != null && recentWriters.getIfPresent(user) != null) {
+            return null;
+        }
+        int size = replicas.size();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), size));
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            String problem;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                problem = connection.isValid(VALIDATION_TIMEOUT_SECONDS) ? lagProblem(connection) : "connection not valid";
+            } catch (SQLException e) {
+                problem = e.getMessage();
+            }
+            if (problem != null) {
+                markDown(replica, problem);
+            } else if (!replica.healthy) {
+                replica.healthy = true;
+                logger.info("Replica {} is back, taking reads again", replica.name);
+            }
+        }
+    }
+
+    // MySQL only: elsewhere (H2 in tests and local runs) there is no replication to measure
+    private String lagProblem(Connection connection) throws SQLException {
+        if (!"MySQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            return null;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!status.next()) {
+                return "not a replica";
+            }
+            long lagSeconds = status.getLong("Seconds_Behind_Source");
+            if (status.wasNull()) {
+                return "replication is not running";
+            }
+            return TimeUnit.SECONDS.toNanos(lagSeconds) > maxLagNanos ? "lagging by " + lagSeconds + "s" : null;
+        }
+    }
+
+    private void markDown(Replica replica, String problem) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            logger.warn("Replica {} taken out of rotation: {}", replica.name, problem);
+        }
+    }
+
+    @Override
+    public void close() {
+        healthChecks.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Could not close replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    private static Counter reads(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("datasource.replica.reads")
+                .description("Transactions labelled for a replica, by where their connection came from")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,80 @@
+package com.recipevault.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Hibernate's second-level cache on Caffeine, through JCache. Recipes, their
+ * ingredient rows and authors are cached, so a warm detail page runs no SQL,
+ * along with the dictionary entries those rows point at and the pages of
+ * {@code /recipes/my}. Every region is bounded by {@code cache.regions.<region>.max-size}
+ * and {@code .ttl}. Hibernate updates entries on its own writes and drops a
+ * whole region on a bulk update; rows changed behind its back are seen once
+ * their entries expire.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+    // Region name to its default size; the names are those on the @Cache annotations of the entities
+    private static final Map<String, Long> REGIONS = Map.of(
+            "recipes", 10_000L,
+            "recipe-ingredient-lists", 10_000L,
+            "recipe-ingredients", 100_000L,
+            "canonical-ingredients", 50_000L,
+            "users", 10_000L,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, 1_000L);
+
+    // Its own manager per application context, so test contexts never share entries
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("recipevault-" + UUID.randomUUID()), getClass().getClassLoader());
+        REGIONS.forEach((region, defaultSize) -> {
+            long maxSize = environment.getProperty("cache.regions." + region + ".max-size", Long.class, defaultSize);
+            Duration ttl = environment.getProperty("cache.regions." + region + ".ttl", Duration.class, Duration.ofHours(1));
+            cacheManager.createCache(region, configuration()
+                    .setMaximumSize(OptionalLong.of(maxSize))
+                    .setExpireAfterWrite(OptionalLong.of(ttl.toNanos())));
+        });
+        // Last-write times per table, checked by every query cache hit; never bounded, or stale results could be served
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, configuration());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(@Value("${cache.second-level.enabled:true}") boolean enabled,
+                                                                    CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            if (enabled) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+                // Every region must be one of ours, with its bounds
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+
+    // Entries are Hibernate's own disassembled state, so they are held by reference rather than copied
+    private static CaffeineConfiguration<Object, Object> configuration() {
+        return new CaffeineConfiguration<>().setStoreByValue(false);
+    }
+}
@@ -0,0 +1,22 @@
+package com.recipevault.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.recipevault.util.SqlStatements;
+
+/** Hooks {@link SqlStatements} into Hibernate so requests can be held to their SQL budgets. */
+@Configuration
+public class SqlStatementConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatements());
+            // Hibernate creates one listener per session from the class name
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlStatements.Timing.class.getName());
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.recipevault.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Logs virtual threads that stay pinned to their carrier, which on Java 21
+ * happens when one blocks inside a {@code synchronized} block or a native
+ * frame. Reads the JDK's own {@code jdk.VirtualThreadPinned} events in
+ * process, so nothing has to be started with extra flags; the log line
+ * names the frames from our code that held the carrier.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.recipevault.";
+    private static final int MAX_FRAMES = 8;
+
+    private final Duration threshold;
+    private final LongAdder pinned = new LongAdder();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${threads.virtual.pinning-threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::report);
+        stream.startAsync();
+        logger.info("Logging virtual threads pinned for longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /** Pinning events seen since startup. */
+    public long pinnedCount() {
+        return pinned.sum();
+    }
+
+    private void report(RecordedEvent event) {
+        pinned.increment();
+        logger.warn("Virtual thread {} pinned its carrier for {} ms at {}",
+                threadName(event), event.getDuration().toMillis(), frames(event));
+    }
+
+    // Virtual threads are usually unnamed
+    private static String threadName(RecordedEvent event) {
+        if (event.getThread() == null) {
+            return "?";
+        }
+        String name = event.getThread().getJavaName();
+        return name == null || name.isEmpty() ? "#" + event.getThread().getJavaThreadId() : name;
+    }
+
+    // Our own frames if there are any, otherwise the top of the stack
+    private static String frames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "(no stack trace)";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        List<RecordedFrame> ours = frames.stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith(APP_PACKAGE))
+                .toList();
+        return (ours.isEmpty() ? frames : ours).stream()
+                .limit(MAX_FRAMES)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+    }
+}
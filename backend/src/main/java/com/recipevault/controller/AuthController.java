@@ -10,10 +10,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.recipevault.dto.LoginResponseDTO;
+import com.recipevault.filter.SqlBudget;
 import com.recipevault.model.UserInfo;
 import com.recipevault.service.UserService;
 import com.recipevault.util.JwtUtil;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 
 @RestController
 @RequestMapping("/auth")
@@ -26,22 +29,25 @@ public class AuthController {
         this.jwtUtil = jwtUtil;
     }
 
+    @SqlBudget(statements = 2)
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody Map<String, String> request) {
+    public ResponseEntity<?> register(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
         String username = request.get("username");
         String fullName = request.get("fullName");
         String password = request.get("password");
 
-        UserInfo newUser = userService.registerUser(username, fullName, password);
+        UserInfo newUser = userService.registerUser(username, fullName, password, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(Map.of("message", "User registered successfully", "user", newUser));
     }
 
+    // Lookup, plus the update when the password is rehashed at a new cost
+    @SqlBudget(statements = 2)
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> request) {
+    public ResponseEntity<?> login(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
         String username = request.get("username");
         String password = request.get("password");
 
-        Optional<UserInfo> authenticatedUser = userService.authenticateUser(username, password);
+        Optional<UserInfo> authenticatedUser = userService.authenticateUser(username, password, httpRequest.getRemoteAddr());
         if (authenticatedUser.isPresent()) {
             UserInfo user = authenticatedUser.get();
             String token = jwtUtil.generateToken(username);
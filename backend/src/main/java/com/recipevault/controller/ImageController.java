@@ -0,0 +1,174 @@
+package com.recipevault.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UriUtils;
+
+import com.recipevault.storage.ImageStore;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves /uploads/** from the {@link ImageStore}. Content-addressed keys
+ * never change content, so they are cacheable forever; every response
+ * carries a strong ETag and Last-Modified for 304s, single byte ranges are
+ * honoured, and local files go out through Tomcat's sendfile (zero-copy)
+ * when the connector supports it.
+ */
+@Controller
+public class ImageController {
+    private static final String PREFIX = "/uploads/";
+
+    // "ab/cd/<sha256>.jpg" and its variants "ab/cd/<sha256>-card.jpg"
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{64}(?:-[a-z]+)?)\\.[a-z]+");
+
+    private static final String IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+    // Legacy names are not guaranteed unique, so clients revalidate (cheaply, via the ETag)
+    private static final String REVALIDATE = CacheControl.noCache().cachePublic().getHeaderValue();
+
+    // Tomcat NIO connector sendfile contract
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ImageStore imageStore;
+
+    public ImageController(ImageStore imageStore) {
+        this.imageStore = imageStore;
+    }
+
+    @RequestMapping(value = PREFIX + "**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length() + PREFIX.length());
+        String key = UriUtils.decode(path, StandardCharsets.UTF_8);
+
+        Resource image;
+        try {
+            image = imageStore.get(key);
+        } catch (IllegalArgumentException e) {
+            image = null; // Key tried to escape the store or reach its staging or quarantine files
+        }
+        if (image == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        long length = image.contentLength();
+        long lastModified = image.lastModified();
+        Matcher contentAddressed = CONTENT_ADDRESSED.matcher(key);
+        boolean immutable = contentAddressed.matches();
+        String etag = "\"" + (immutable
+                ? contentAddressed.group(1)
+                : Long.toHexString(length) + "-" + Long.toHexString(lastModified)) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Sets ETag and Last-Modified, and answers If-None-Match / If-Modified-Since with 304
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setContentType(MediaTypeFactory.getMediaType(image).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of(); // A Range header that does not parse is ignored (RFC 9110 14.2)
+            }
+            // Multi-range requests are rare for images; they get the whole body
+            if (ranges.size() == 1 && !isSatisfiable(ranges.get(0), length)) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length);
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        response.setContentLengthLong(end - start + 1);
+        if (RequestMethod.HEAD.name().equals(request.getMethod())) {
+            return;
+        }
+
+        if (image.isFile()) {
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // The connector transfers the file straight from the page cache once this method returns
+                request.setAttribute(SENDFILE_FILENAME, image.getFile().getAbsolutePath());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            try (FileChannel file = FileChannel.open(image.getFile().toPath(), StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                while (position <= end) {
+                    long sent = file.transferTo(position, end + 1 - position, out);
+                    if (sent <= 0) {
+                        break;
+                    }
+                    position += sent;
+                }
+            }
+        } else {
+            try (InputStream in = image.getInputStream()) {
+                StreamUtils.copyRange(in, response.getOutputStream(), start, end);
+            }
+        }
+    }
+
+    private static boolean isSatisfiable(HttpRange range, long length) {
+        try {
+            return length > 0 && range.getRangeStart(length) < length && range.getRangeStart(length) <= range.getRangeEnd(length);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // A Range request is only honoured when If-Range (if present) still names the current representation
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
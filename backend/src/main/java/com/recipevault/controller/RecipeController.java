@@ -1,63 +1,143 @@
 package com.recipevault.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.recipevault.dto.PantryMatchDTO;
+import com.recipevault.filter.SqlBudget;
+import com.recipevault.dto.RecipePageDTO;
 import com.recipevault.dto.RecipeRequestDTO;
 import com.recipevault.dto.RecipeResponseDTO;
 import com.recipevault.model.Recipe;
+import com.recipevault.service.RecipeExportService;
+import com.recipevault.service.RecipeImportService;
 import com.recipevault.service.RecipeService;
-import com.recipevault.util.JwtUtil;
+import com.recipevault.service.RecipeVersions;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 @RestController
 @RequestMapping("/recipes")
 public class RecipeController {
+    // Clients may keep a copy but must revalidate it; the ETag makes that a bodiless 304
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
     private final RecipeService recipeService;
-    private final JwtUtil jwtUtil;
+    private final RecipeImportService importService;
+    private final RecipeExportService exportService;
+    private final RecipeVersions versions;
+    private final ObjectMapper objectMapper;
+    // Built once; a new ObjectMapper per request rebuilds its deserializers every time
+    private final ObjectReader ingredientsReader;
 
-    public RecipeController(RecipeService recipeService, JwtUtil jwtUtil) {
+    public RecipeController(RecipeService recipeService, RecipeImportService importService, RecipeExportService exportService,
+                            RecipeVersions versions, ObjectMapper objectMapper) {
         this.recipeService = recipeService;
-        this.jwtUtil = jwtUtil;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.versions = versions;
+        this.objectMapper = objectMapper;
+        this.ingredientsReader = objectMapper.readerForListOf(String.class);
     }
 
+    @SqlBudget(statements = 2)
     @GetMapping
-    public ResponseEntity<List<RecipeResponseDTO>> getAllRecipes() {
-        return ResponseEntity.ok(recipeService.getAllRecipes());
+    public ResponseEntity<RecipePageDTO> getAllRecipes(
+            WebRequest request,
+            @RequestParam(value = "title", required = false) String title,
+            @RequestParam(value = "difficulty", required = false) String difficulty,
+            @RequestParam(value = "ingredientCount", required = false) Integer ingredientCount,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        // Read the version before the data, so a concurrent write can only make the ETag older, never newer
+        if (request.checkNotModified(versions.catalogueETag())) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok()
+                    .cacheControl(REVALIDATE)
+                    .body(recipeService.getAllRecipes(title, difficulty, ingredientCount, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // Bad cursor or unknown difficulty
+        }
+    }
+
+    @SqlBudget(statements = 2)
+    @GetMapping("/search")
+    public ResponseEntity<List<RecipeResponseDTO>> searchRecipes(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(recipeService.searchRecipes(query, limit));
+    }
+
+    @SqlBudget(statements = 2)
+    @GetMapping("/pantry")
+    public ResponseEntity<List<PantryMatchDTO>> matchPantry(
+            @RequestParam("ingredients") List<String> ingredients,
+            @RequestParam(value = "maxMissing", required = false) Integer maxMissing,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(recipeService.matchPantry(ingredients, maxMissing, limit));
     }
 
+    @SqlBudget(statements = 1)
     @GetMapping("/{id}")
-    public ResponseEntity<RecipeResponseDTO> getRecipeById(@PathVariable Long id) {
+    public ResponseEntity<RecipeResponseDTO> getRecipeById(WebRequest request, @PathVariable Long id) {
+        if (request.checkNotModified(versions.recipeETag(id))) {
+            return null;
+        }
         Optional<RecipeResponseDTO> recipe = recipeService.getRecipeById(id);
-        return recipe.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        return recipe.map(body -> ResponseEntity.ok().cacheControl(REVALIDATE).body(body))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @SqlBudget(statements = 3)
     @GetMapping("/my")
-    public ResponseEntity<List<RecipeResponseDTO>> getMyRecipes(@RequestHeader("Authorization") String authHeader) {
-        String token = authHeader.substring(7);
-        String username = jwtUtil.extractUsername(token);
-        List<RecipeResponseDTO> myRecipes = recipeService.getRecipesByUser(username);
-        return ResponseEntity.ok(myRecipes);
+    public ResponseEntity<RecipePageDTO> getMyRecipes(
+            @AuthenticationPrincipal UserDetails currentUser,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(recipeService.getRecipesByUser(currentUser.getUsername(), cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
+    // User, dictionary lookup and three inserts, plus up to three id sequence fetches
+    @SqlBudget(statements = 8)
     @PostMapping(consumes = "multipart/form-data")
     public ResponseEntity<Recipe> createRecipe(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal UserDetails currentUser,
             @RequestParam("title") String title,
             @RequestParam("difficulty") String difficulty,
             @RequestParam("instructions") String instructions,
             @RequestParam("ingredients") String ingredientsJson,
             @RequestParam(value = "image", required = false) MultipartFile image) throws IOException {
 
-        String token = authHeader.substring(7);
-        
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<String> ingredients = objectMapper.readValue(ingredientsJson, List.class); 
+        List<String> ingredients = ingredientsReader.readValue(ingredientsJson);
 
         RecipeRequestDTO recipeDTO = new RecipeRequestDTO();
         recipeDTO.setTitle(title);
@@ -66,13 +146,96 @@ public class RecipeController {
         recipeDTO.setIngredients(ingredients);
         recipeDTO.setImage(image);
 
-        Recipe savedRecipe = recipeService.createRecipe(token, recipeDTO);
+        Recipe savedRecipe = recipeService.createRecipe(currentUser.getUsername(), recipeDTO);
         return ResponseEntity.ok(savedRecipe);
     }
 
+    /**
+     * Imports an NDJSON or CSV body of recipes. The response is NDJSON written
+     * while the body is still being read: an {@code error} line per rejected
+     * row, a {@code progress} line per committed chunk and a final {@code done}.
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV})
+    public void importRecipes(
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        RecipeImportService.Format format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(CSV))
+                ? RecipeImportService.Format.CSV
+                : RecipeImportService.Format.NDJSON;
+        OutputStream out = response.getOutputStream();
+        RecipeImportService.Listener listener = new RecipeImportService.Listener() {
+            @Override
+            public void onError(RecipeImportService.RowError error) throws IOException {
+                writeLine(response, out, Map.of("error", error));
+            }
+
+            @Override
+            public void onProgress(RecipeImportService.Progress progress) throws IOException {
+                writeLine(response, out, Map.of("progress", progress));
+                response.flushBuffer();
+            }
+        };
+        try {
+            RecipeImportService.Report report = importService.importRecipes(currentUser.getUsername(), format, request.getInputStream(), listener);
+            writeLine(response, out, Map.of("done", report));
+        } catch (IllegalArgumentException e) {
+            if (response.isCommitted()) {
+                throw e;
+            }
+            writeBadRequest(response, e.getMessage());
+        }
+    }
+
+    /**
+     * Streams matching recipes as NDJSON in the format the import accepts,
+     * gzip-compressed when the client allows it. {@code from} is inclusive
+     * and {@code to} exclusive.
+     */
+    @GetMapping("/export")
+    public void exportRecipes(
+            @RequestParam(value = "user", required = false) String username,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        try {
+            exportService.export(new RecipeExportService.Filter(username, from, to), () -> {
+                response.setContentType(NDJSON);
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"recipes.ndjson\"");
+                response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+                response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (!gzip) {
+                    return response.getOutputStream();
+                }
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                return new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+            });
+        } catch (IllegalArgumentException e) {
+            writeBadRequest(response, e.getMessage()); // Unknown user; nothing has been written yet
+        }
+    }
+
+    private void writeBadRequest(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(objectMapper.writeValueAsBytes(Map.of("error", message)));
+    }
+
+    private void writeLine(HttpServletResponse response, OutputStream out, Object event) throws IOException {
+        if (response.getContentType() == null) {
+            response.setContentType(NDJSON);
+        }
+        out.write(objectMapper.writeValueAsBytes(event));
+        out.write('\n');
+    }
+
+    // Load, dictionary lookup, update and ingredient delete/insert, plus up to two id sequence fetches
+    @SqlBudget(statements = 8)
     @PutMapping(value = "/{id}", consumes = "multipart/form-data")
     public ResponseEntity<Recipe> updateRecipe(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal UserDetails currentUser,
             @PathVariable Long id,
             @RequestParam("title") String title,
             @RequestParam("difficulty") String difficulty,
@@ -80,11 +243,8 @@ public class RecipeController {
             @RequestParam("ingredients") String ingredientsJson,
             @RequestParam(value = "image", required = false) MultipartFile image,
             @RequestParam(value = "removeExistingImage", required = false, defaultValue = "false") boolean removeExistingImage ) throws IOException {
-        
-        String token = authHeader.substring(7);
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<String> ingredients = objectMapper.readValue(ingredientsJson, List.class);
+        List<String> ingredients = ingredientsReader.readValue(ingredientsJson);
 
         RecipeRequestDTO recipeDTO = new RecipeRequestDTO();
         recipeDTO.setTitle(title);
@@ -93,15 +253,15 @@ public class RecipeController {
         recipeDTO.setIngredients(ingredients);
         recipeDTO.setImage(image);
 
-        Recipe updatedRecipe = recipeService.updateRecipe(token, id, recipeDTO, removeExistingImage);
+        Recipe updatedRecipe = recipeService.updateRecipe(currentUser.getUsername(), id, recipeDTO, removeExistingImage);
         return updatedRecipe != null ? ResponseEntity.ok(updatedRecipe) : ResponseEntity.notFound().build();
     }
 
 
+    @SqlBudget(statements = 3)
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteRecipe(@RequestHeader("Authorization") String authHeader, @PathVariable Long id) {
-        String token = authHeader.substring(7);
-        boolean deleted = recipeService.deleteRecipe(token, id);
+    public ResponseEntity<?> deleteRecipe(@AuthenticationPrincipal UserDetails currentUser, @PathVariable Long id) throws IOException {
+        boolean deleted = recipeService.deleteRecipe(currentUser.getUsername(), id);
         return deleted ? ResponseEntity.noContent().build() : ResponseEntity.status(403).body("Unauthorized to delete this recipe");
     }
 }
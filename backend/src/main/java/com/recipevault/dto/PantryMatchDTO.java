@@ -0,0 +1,17 @@
+package com.recipevault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class PantryMatchDTO {
+    private RecipeResponseDTO recipe;
+    private int matchedIngredients;
+    private int totalIngredients;
+    private List<String> missingIngredients;
+}
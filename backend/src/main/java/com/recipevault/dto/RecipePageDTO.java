@@ -0,0 +1,15 @@
+package com.recipevault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class RecipePageDTO {
+    private List<RecipeResponseDTO> items;
+    private String nextCursor; // null when there are no more pages
+}
@@ -17,11 +17,15 @@ public class RecipeResponseDTO {
     private String difficulty;
     private String instructions;
     private String imageUrl;
+    // Resized variants; the original until the background pipeline has produced them
+    private String cardImageUrl;
+    private String detailImageUrl;
     private LocalDateTime createdDate;
     private List<Ingredient> ingredients;
     private Long userId;
     private String fullName; 
 
+    // Copies the ingredients, so a lazy list is loaded by the caller's transaction rather than during serialisation
     public static RecipeResponseDTO fromRecipe(com.recipevault.model.Recipe recipe) {
         return new RecipeResponseDTO(
                 recipe.getId(),
@@ -29,8 +33,10 @@ public class RecipeResponseDTO {
                 recipe.getDifficulty().name(),
                 recipe.getInstructions(),
                 recipe.getImageUrl(),
+                recipe.getCardImageUrl() != null ? recipe.getCardImageUrl() : recipe.getImageUrl(),
+                recipe.getDetailImageUrl() != null ? recipe.getDetailImageUrl() : recipe.getImageUrl(),
                 recipe.getCreatedDate(),
-                recipe.getIngredients(),
+                recipe.getIngredients() == null ? List.of() : List.copyOf(recipe.getIngredients()),
                 recipe.getUser().getId(),
                 recipe.getUser().getFullName()
         );
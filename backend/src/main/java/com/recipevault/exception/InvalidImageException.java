@@ -0,0 +1,16 @@
+package com.recipevault.exception;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+/** An uploaded image was refused before being stored. */
+@Getter
+public class InvalidImageException extends RuntimeException {
+    private final HttpStatus status;
+
+    public InvalidImageException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+}
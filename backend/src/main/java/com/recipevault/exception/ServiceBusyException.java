@@ -0,0 +1,28 @@
+package com.recipevault.exception;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+/**
+ * A request was turned away because a bounded resource is at capacity:
+ * 503 when the server as a whole is busy, 429 when the caller (or the
+ * account it targets) already has its share.
+ */
+@Getter
+public class ServiceBusyException extends RuntimeException {
+    private final HttpStatus status;
+    private final Duration retryAfter;
+
+    public ServiceBusyException(String message, Duration retryAfter) {
+        this(HttpStatus.SERVICE_UNAVAILABLE, message, retryAfter);
+    }
+
+    public ServiceBusyException(HttpStatus status, String message, Duration retryAfter) {
+        super(message);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,9 @@
+package com.recipevault.exception;
+
+/** A request issued more SQL statements than its handler's {@code @SqlBudget} allows. */
+public class SqlBudgetExceededException extends RuntimeException {
+
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.recipevault.filter;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * The authentication {@link JwtAuthFilter} puts in the security context: the
+ * user's {@link UserDetails} as principal, plus the verified claims of the
+ * bearer token, so controllers can read them without parsing it again.
+ */
+public class JwtAuthenticationToken extends UsernamePasswordAuthenticationToken {
+    private final transient Claims claims;
+
+    public JwtAuthenticationToken(UserDetails principal, Claims claims) {
+        super(principal, null, principal.getAuthorities());
+        this.claims = claims;
+    }
+
+    /** Read-only; shared with every other request carrying the same token. */
+    public Claims getClaims() {
+        return claims;
+    }
+}
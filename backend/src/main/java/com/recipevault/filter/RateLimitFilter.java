@@ -0,0 +1,148 @@
+package com.recipevault.filter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.recipevault.util.TokenBuckets;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Per-user and per-client-address token buckets, with separate policies for
+ * reads, writes and uploads (multipart bodies and bulk imports). Runs after
+ * {@link JwtAuthFilter} so it knows the user; a client address is shared by
+ * everyone behind it, so its buckets are {@code rate-limit.client-factor}
+ * times larger. Over the limit the request is answered 429 with a
+ * Retry-After before its body is read.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final byte[] REJECTED = "{\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+
+    enum Policy {
+        READ, WRITE, UPLOAD
+    }
+
+    private final boolean enabled;
+    private final TokenBuckets buckets;
+    private final Map<Policy, TokenBuckets.Rate> userRates = new EnumMap<>(Policy.class);
+    private final Map<Policy, TokenBuckets.Rate> clientRates = new EnumMap<>(Policy.class);
+    private final Map<Policy, Counter> userRejections = new EnumMap<>(Policy.class);
+    private final Map<Policy, Counter> clientRejections = new EnumMap<>(Policy.class);
+
+    public RateLimitFilter(@Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.read.per-minute:600}") int readsPerMinute,
+                           @Value("${rate-limit.read.burst:100}") int readBurst,
+                           @Value("${rate-limit.write.per-minute:60}") int writesPerMinute,
+                           @Value("${rate-limit.write.burst:20}") int writeBurst,
+                           @Value("${rate-limit.upload.per-minute:20}") int uploadsPerMinute,
+                           @Value("${rate-limit.upload.burst:5}") int uploadBurst,
+                           @Value("${rate-limit.client-factor:4}") int clientFactor,
+                           @Value("${rate-limit.max-keys:1000000}") long maxKeys,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        userRates.put(Policy.READ, TokenBuckets.Rate.perMinute(readsPerMinute, readBurst));
+        userRates.put(Policy.WRITE, TokenBuckets.Rate.perMinute(writesPerMinute, writeBurst));
+        userRates.put(Policy.UPLOAD, TokenBuckets.Rate.perMinute(uploadsPerMinute, uploadBurst));
+        userRates.forEach((policy, rate) -> clientRates.put(policy, rate.times(clientFactor)));
+
+        Duration idleExpiry = Stream.concat(userRates.values().stream(), clientRates.values().stream())
+                .map(TokenBuckets.Rate::refill)
+                .max(Duration::compareTo)
+                .orElseThrow();
+        this.buckets = new TokenBuckets(maxKeys, idleExpiry);
+
+        for (Policy policy : Policy.values()) {
+            userRejections.put(policy, rejections(meterRegistry, policy, "user"));
+            clientRejections.put(policy, rejections(meterRegistry, policy, "client"));
+        }
+        Gauge.builder("ratelimit.keys", buckets, TokenBuckets::size)
+                .description("Token buckets currently held").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Policy policy = policyOf(request);
+        String prefix = policy.ordinal() + ":";
+
+        String username = usernameOf(SecurityContextHolder.getContext().getAuthentication());
+        long wait = username == null ? 0 : buckets.tryAcquire(prefix + "u:" + username, userRates.get(policy));
+        if (wait > 0) {
+            userRejections.get(policy).increment();
+            reject(response, wait);
+            return;
+        }
+        wait = buckets.tryAcquire(prefix + "c:" + request.getRemoteAddr(), clientRates.get(policy));
+        if (wait > 0) {
+            clientRejections.get(policy).increment();
+            reject(response, wait);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // Decided from the request line and headers alone, so nothing has been parsed or spooled yet
+    static Policy policyOf(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) {
+            return Policy.READ;
+        }
+        String contentType = request.getContentType();
+        if ((contentType != null && contentType.toLowerCase().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE))
+                || request.getRequestURI().endsWith("/recipes/import")) {
+            return Policy.UPLOAD;
+        }
+        return Policy.WRITE;
+    }
+
+    private static String usernameOf(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(REJECTED);
+    }
+
+    // Tags are the policy and which bucket refused, never the user or address
+    private static Counter rejections(MeterRegistry meterRegistry, Policy policy, String key) {
+        return Counter.builder("ratelimit.rejected")
+                .tag("policy", policy.name().toLowerCase())
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+}
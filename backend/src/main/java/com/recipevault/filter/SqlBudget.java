@@ -0,0 +1,17 @@
+package com.recipevault.filter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most SQL statements one request to this handler may issue once it is
+ * authenticated. Checked by {@link SqlBudgetFilter}: tests fail on an
+ * overrun, production logs it.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+    int statements();
+}
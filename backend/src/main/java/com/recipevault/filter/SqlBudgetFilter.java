@@ -0,0 +1,114 @@
+package com.recipevault.filter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.recipevault.exception.SqlBudgetExceededException;
+import com.recipevault.util.SqlStatements;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the SQL statements and database time of each request and holds
+ * them against the handler's {@link SqlBudget}. Runs just inside Spring
+ * Security, so the (cached) principal lookup is not part of any budget.
+ * With {@code sql.budget.enforce} an overrun throws, which fails the test
+ * that made the request; otherwise overruns and slow requests are logged
+ * with their statements, and a sample of the rest too.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+    private static final int MAX_SHAPES_LOGGED = 10;
+    private static final int MAX_SHAPE_LENGTH = 300;
+
+    private final boolean enforce;
+    private final double sampleRate;
+    private final long slowNanos;
+    private final MeterRegistry registry;
+
+    public SqlBudgetFilter(@Value("${sql.budget.enforce:false}") boolean enforce,
+                           @Value("${sql.budget.sample-rate:0.001}") double sampleRate,
+                           @Value("${sql.budget.slow-threshold:200ms}") Duration slowThreshold,
+                           MeterRegistry registry) {
+        this.enforce = enforce;
+        this.sampleRate = sampleRate;
+        this.slowNanos = slowThreshold.toNanos();
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatements.Recording recording = SqlStatements.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatements.stop();
+        }
+
+        int budget = budgetOf(request);
+        boolean overBudget = budget >= 0 && recording.statements() > budget;
+        if (overBudget) {
+            Counter.builder("sql.budget.exceeded").tag("uri", routeOf(request)).register(registry).increment();
+            if (enforce) {
+                throw new SqlBudgetExceededException(describe(request, recording, budget));
+            }
+        }
+        if (overBudget || recording.nanos() >= slowNanos) {
+            logger.warn(describe(request, recording, budget));
+        } else if (recording.statements() > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            logger.info(describe(request, recording, budget));
+        }
+    }
+
+    // The handler is only known once the dispatcher has matched it, which is why this reads it afterwards
+    private static int budgetOf(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            SqlBudget budget = handler.getMethodAnnotation(SqlBudget.class);
+            return budget != null ? budget.statements() : -1;
+        }
+        return -1;
+    }
+
+    // The URI template, so the counter's tag stays bounded
+    private static String routeOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    private static String describe(HttpServletRequest request, SqlStatements.Recording recording, int budget) {
+        StringBuilder message = new StringBuilder()
+                .append(request.getMethod()).append(' ').append(routeOf(request)).append(": ")
+                .append(recording.statements()).append(" SQL statements");
+        if (budget >= 0) {
+            message.append(" (budget ").append(budget).append(')');
+        }
+        message.append(String.format(", %.1f ms in the database", recording.nanos() / 1e6));
+        List<SqlStatements.Shape> shapes = recording.shapes();
+        for (SqlStatements.Shape shape : shapes.subList(0, Math.min(MAX_SHAPES_LOGGED, shapes.size()))) {
+            String sql = shape.sql().length() > MAX_SHAPE_LENGTH ? shape.sql().substring(0, MAX_SHAPE_LENGTH) + "..." : shape.sql();
+            message.append(String.format("%n  %3dx %8.1f ms  %s", shape.count(), shape.nanos() / 1e6, sql));
+        }
+        if (shapes.size() > MAX_SHAPES_LOGGED) {
+            message.append(String.format("%n  ... and %d more distinct statements", shapes.size() - MAX_SHAPES_LOGGED));
+        }
+        return message.toString();
+    }
+}
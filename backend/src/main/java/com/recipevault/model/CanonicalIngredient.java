@@ -0,0 +1,40 @@
+package com.recipevault.model;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One entry of the ingredient dictionary. "Eggs", "egg" and "2 eggs" all
+ * share the entry keyed "egg", which is what recipes are matched on; each
+ * recipe keeps its own wording on its {@link Ingredient} rows. Entries are
+ * never changed once written.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "canonical_ingredients")
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "canonical-ingredients")
+public class CanonicalIngredient {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "canonical_ingredients_seq")
+    @SequenceGenerator(name = "canonical_ingredients_seq", sequenceName = "canonical_ingredients_seq", allocationSize = 50)
+    private Long id;
+
+    // IngredientNormalizer key
+    @Column(nullable = false, unique = true)
+    private String normalizedName;
+
+    // How the ingredient was first written; recipes show their own wording
+    @Column(nullable = false)
+    private String name;
+
+    public CanonicalIngredient(String normalizedName, String name) {
+        this.normalizedName = normalizedName;
+        this.name = name;
+    }
+}
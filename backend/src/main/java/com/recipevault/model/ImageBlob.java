@@ -0,0 +1,62 @@
+package com.recipevault.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+/** One stored image, shared by every recipe that uploaded the same bytes. */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "image_blobs")
+public class ImageBlob implements Persistable<String> {
+    // SHA-256 of the content, hex encoded
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false, unique = true)
+    private String storageKey;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    private long size;
+
+    // Number of recipes whose imageUrl points at this blob
+    private int refCount;
+
+    private LocalDateTime createdDate = LocalDateTime.now();
+
+    // The id is assigned by us, so tell Spring Data to INSERT rather than merge a new blob
+    @Transient
+    private boolean newBlob = true;
+
+    public ImageBlob(String hash, String storageKey, String contentType, long size) {
+        this.hash = hash;
+        this.storageKey = storageKey;
+        this.contentType = contentType;
+        this.size = size;
+        this.refCount = 1;
+    }
+
+    @Override
+    public String getId() {
+        return hash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newBlob;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newBlob = false;
+    }
+}
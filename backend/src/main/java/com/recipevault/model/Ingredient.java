@@ -1,26 +1,74 @@
 package com.recipevault.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import jakarta.persistence.*;
 import lombok.*;
 
+/** A recipe's use of a dictionary ingredient, with the quantity and wording it was written with. */
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
-@Table(name = "ingredients")
+@Table(name = "recipe_ingredients")
+// Cached with Recipe.ingredients, which only holds the ids of these rows
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipe-ingredients")
 public class Ingredient {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredients_seq")
+    @SequenceGenerator(name = "ingredients_seq", sequenceName = "ingredients_seq", allocationSize = 200)
+    @JsonIgnore
     private Long id;
 
-    @Column(nullable = false)
-    private String ingredientName;
-
     @ManyToOne
     @JoinColumn(name = "recipe_id", nullable = false)
     @JsonBackReference
     private Recipe recipe;
+
+    // Joined into the same query that loads a recipe's ingredients
+    @ManyToOne(fetch = FetchType.EAGER, optional = false)
+    @Fetch(FetchMode.JOIN)
+    @JoinColumn(name = "ingredient_id", nullable = false)
+    @JsonIgnore
+    private CanonicalIngredient ingredient;
+
+    // Whatever preceded the ingredient in the recipe's line, e.g. "2 cups"; null if nothing did
+    @JsonIgnore
+    private String quantity;
+
+    // The ingredient as this recipe wrote it, e.g. "Plain Flour"; the dictionary entry is only for matching
+    @Column(nullable = false)
+    @JsonIgnore
+    private String name;
+
+    @JsonIgnore
+    private int position;
+
+    public Ingredient(Recipe recipe, int position, CanonicalIngredient ingredient, String quantity, String name) {
+        this.recipe = recipe;
+        this.position = position;
+        this.ingredient = ingredient;
+        this.quantity = quantity;
+        this.name = name;
+    }
+
+    @JsonIgnore
+    public Long getIngredientId() {
+        return ingredient.getId();
+    }
+
+    /** The line as shown to users, e.g. "2 cups plain flour"; the only property of an ingredient in the API. */
+    public String getIngredientName() {
+        return line(quantity, name);
+    }
+
+    public static String line(String quantity, String name) {
+        return quantity == null ? name : quantity + " " + name;
+    }
 }
@@ -6,6 +6,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
@@ -15,9 +19,12 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "recipes")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipes")
 public class Recipe {
+    // Pooled sequence ids (not IDENTITY) so Hibernate can batch inserts; see the V5 migrations
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipes_seq")
+    @SequenceGenerator(name = "recipes_seq", sequenceName = "recipes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -31,13 +38,26 @@ public class Recipe {
     private String instructions;
 
     private String imageUrl;
+
+    // Resized copies of imageUrl, filled in by ImageVariantService once generated
+    private String cardImageUrl;
+    private String detailImageUrl;
     
     // @Column(nullable = false)
     // private String creatorName;
 
     private LocalDateTime createdDate = LocalDateTime.now();
 
+    // Denormalised size of ingredients so listings can filter on it in SQL
+    @Column(nullable = false)
+    private int ingredientCount;
+
+    // Batch size matches the max listing page, so a page of recipes loads its ingredients in one query.
+    // Cached as a list of row ids, so loading it for a cached recipe usually needs no SQL either.
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("position")
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipe-ingredient-lists")
     @JsonManagedReference
     private List<Ingredient> ingredients;
 
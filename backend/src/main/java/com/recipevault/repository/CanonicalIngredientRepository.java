@@ -0,0 +1,12 @@
+package com.recipevault.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.recipevault.model.CanonicalIngredient;
+
+public interface CanonicalIngredientRepository extends JpaRepository<CanonicalIngredient, Long> {
+    List<CanonicalIngredient> findByNormalizedNameIn(Collection<String> normalizedNames);
+}
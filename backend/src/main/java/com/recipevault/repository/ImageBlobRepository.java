@@ -0,0 +1,43 @@
+package com.recipevault.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.recipevault.model.ImageBlob;
+
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+    Optional<ImageBlob> findByStorageKey(String storageKey);
+
+    // Reference counts change with single UPDATE statements so concurrent uploads cannot lose increments
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount + 1 WHERE b.hash = :hash")
+    int incrementRefCount(@Param("hash") String hash);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount - 1 WHERE b.hash = :hash AND b.refCount > 0")
+    int decrementRefCount(@Param("hash") String hash);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageBlob b WHERE b.hash = :hash AND b.refCount = 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    // The keys among storageKeys whose blobs something still holds a reference to
+    @Query("SELECT b.storageKey FROM ImageBlob b WHERE b.storageKey IN :storageKeys AND b.refCount > 0")
+    List<String> findReferencedStorageKeys(@Param("storageKeys") Collection<String> storageKeys);
+
+    // Used by the orphan collector once neither a recipe nor the count holds the blob
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageBlob b WHERE b.storageKey = :storageKey")
+    int deleteByStorageKey(@Param("storageKey") String storageKey);
+}
@@ -1,12 +1,148 @@
 package com.recipevault.repository;
 
+import com.recipevault.model.Difficulty;
 import com.recipevault.model.Recipe;
-import com.recipevault.model.UserInfo;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
-    List<Recipe> findByUser(UserInfo user);
-}
\ No newline at end of file
+    // Detail, update and delete all need the author and ingredients, so load them in one query
+    @Override
+    @EntityGraph(attributePaths = {"user", "ingredients", "ingredients.ingredient"})
+    Optional<Recipe> findById(Long id);
+
+    // findById for a recipe used outside a transaction. A recipe from the second-level cache skips the entity
+    // graph, so its ingredients are loaded here (from the collection cache when warm) before it is detached.
+    @Transactional(readOnly = true)
+    default Optional<Recipe> findWithIngredientsById(Long id) {
+        Optional<Recipe> recipe = findById(id);
+        recipe.ifPresent(found -> Hibernate.initialize(found.getIngredients()));
+        return recipe;
+    }
+
+    // findPage for one user's recipes (GET /recipes/my), without the listing filters. A user's own recipes change
+    // far less often than they are read, so the page goes through the query cache (invalidated by any write to
+    // recipes or users).
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT r FROM Recipe r JOIN FETCH r.user " +
+           "WHERE r.user.id = :userId " +
+           "AND (:cursorDate IS NULL OR r.createdDate < :cursorDate " +
+           "     OR (r.createdDate = :cursorDate AND r.id < :cursorId)) " +
+           "ORDER BY r.createdDate DESC, r.id DESC")
+    List<Recipe> findPageByUser(@Param("userId") Long userId,
+                                @Param("cursorDate") LocalDateTime cursorDate,
+                                @Param("cursorId") Long cursorId,
+                                Limit limit);
+
+    @Query("SELECT r FROM Recipe r JOIN FETCH r.user WHERE r.id IN :ids")
+    List<Recipe> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset page ordered newest first; the cursor is the (createdDate, id) of the last row already returned.
+    // The author is joined in; ingredients follow in one batched query per page (see Recipe.ingredients).
+    @Query("SELECT r FROM Recipe r JOIN FETCH r.user " +
+           "WHERE (:title IS NULL OR LOWER(r.title) LIKE LOWER(CONCAT('%', :title, '%'))) " +
+           "AND (:difficulty IS NULL OR r.difficulty = :difficulty) " +
+           "AND (:ingredientCount IS NULL OR r.ingredientCount = :ingredientCount) " +
+           "AND (:cursorDate IS NULL OR r.createdDate < :cursorDate " +
+           "     OR (r.createdDate = :cursorDate AND r.id < :cursorId)) " +
+           "ORDER BY r.createdDate DESC, r.id DESC")
+    List<Recipe> findPage(@Param("title") String title,
+                          @Param("difficulty") Difficulty difficulty,
+                          @Param("ingredientCount") Integer ingredientCount,
+                          @Param("cursorDate") LocalDateTime cursorDate,
+                          @Param("cursorId") Long cursorId,
+                          Limit limit);
+
+    /** Just the image columns of a recipe, for walking every reference without loading entities. */
+    interface ImageRefs {
+        Long getId();
+
+        String getImageUrl();
+
+        String getCardImageUrl();
+
+        String getDetailImageUrl();
+    }
+
+    @Query("SELECT COUNT(r) FROM Recipe r WHERE r.imageUrl IS NOT NULL")
+    long countWithImage();
+
+    // Keyset batches by id over recipes that have an image
+    @Query("SELECT r.id AS id, r.imageUrl AS imageUrl, r.cardImageUrl AS cardImageUrl, r.detailImageUrl AS detailImageUrl " +
+           "FROM Recipe r WHERE r.imageUrl IS NOT NULL AND r.id > :afterId ORDER BY r.id")
+    List<ImageRefs> findImageRefsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT r.id AS id, r.imageUrl AS imageUrl, r.cardImageUrl AS cardImageUrl, r.detailImageUrl AS detailImageUrl " +
+           "FROM Recipe r WHERE r.imageUrl IN :urls OR r.cardImageUrl IN :urls OR r.detailImageUrl IN :urls")
+    List<ImageRefs> findImageRefsByUrlIn(@Param("urls") Collection<String> urls);
+
+    /** One recipe/ingredient pair of the export; a recipe spans as many consecutive rows as it has ingredients. */
+    interface ExportRow {
+        Long getId();
+
+        String getTitle();
+
+        Difficulty getDifficulty();
+
+        String getInstructions();
+
+        String getImageUrl();
+
+        LocalDateTime getCreatedDate();
+
+        String getUsername();
+
+        String getQuantity();
+
+        String getIngredientName();
+    }
+
+    // Scalar rows over a forward-only cursor, so nothing accumulates in the persistence context;
+    // must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r.id AS id, r.title AS title, r.difficulty AS difficulty, r.instructions AS instructions, " +
+           "r.imageUrl AS imageUrl, r.createdDate AS createdDate, u.username AS username, i.quantity AS quantity, i.name AS ingredientName " +
+           "FROM Recipe r JOIN r.user u LEFT JOIN r.ingredients i " +
+           "WHERE (:userId IS NULL OR u.id = :userId) " +
+           "AND (:from IS NULL OR r.createdDate >= :from) " +
+           "AND (:to IS NULL OR r.createdDate < :to) " +
+           "ORDER BY r.id, i.position")
+    Stream<ExportRow> streamExportRows(@Param("userId") Long userId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Recipe r WHERE r.imageUrl = :imageUrl")
+    List<Recipe> findByImageUrlForUpdate(@Param("imageUrl") String imageUrl);
+
+    // Keyed on the image rather than the recipe: every recipe sharing a deduplicated image picks up its variants.
+    // Written through the entities, so only their cache entries change; a bulk UPDATE would empty the whole recipes
+    // region. The rows stay locked until commit, so an edit made meanwhile can't be overwritten with what was read.
+    // Returns the ids of the recipes updated.
+    @Transactional
+    default List<Long> setImageVariants(String imageUrl, String cardImageUrl, String detailImageUrl) {
+        List<Recipe> recipes = findByImageUrlForUpdate(imageUrl);
+        for (Recipe recipe : recipes) {
+            recipe.setCardImageUrl(cardImageUrl);
+            recipe.setDetailImageUrl(detailImageUrl);
+        }
+        return recipes.stream().map(Recipe::getId).toList();
+    }
+}
@@ -0,0 +1,222 @@
+package com.recipevault.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.recipevault.exception.InvalidImageException;
+import com.recipevault.model.ImageBlob;
+import com.recipevault.repository.ImageBlobRepository;
+import com.recipevault.storage.ImageLocks;
+import com.recipevault.storage.ImageStore;
+import com.recipevault.storage.ImageVariant;
+
+/**
+ * Streams uploaded images into a staging file through a fixed-size buffer,
+ * so heap use per upload does not depend on the image size. The type is
+ * sniffed from the leading bytes, the size limit is enforced while copying
+ * and the SHA-256 computed on the way. The finished file is handed to the
+ * {@link ImageStore} under a content-addressed key, so identical uploads
+ * share one blob whose references are counted in {@link ImageBlob}. Storing
+ * and releasing a blob take its {@link ImageLocks} stripe, so its first
+ * reference and its deletion never interleave.
+ */
+@Service
+public class ImageIngestService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String URL_PREFIX = "/uploads/";
+
+    private final Path stagingDir;
+    private final long maxSize;
+    private final List<String> allowedTypes;
+    private final ImageStore imageStore;
+    private final ImageBlobRepository blobRepository;
+    private final ImageLocks locks;
+
+    public ImageIngestService(@Value("${file.upload-dir}") String uploadDir,
+                              @Value("${image.max-size:10MB}") DataSize maxSize,
+                              @Value("${image.allowed-types:image/jpeg,image/png,image/gif,image/webp}") List<String> allowedTypes,
+                              ImageStore imageStore,
+                              ImageBlobRepository blobRepository,
+                              ImageLocks locks) {
+        this.stagingDir = Paths.get(uploadDir, ".staging");
+        this.maxSize = maxSize.toBytes();
+        this.allowedTypes = allowedTypes;
+        this.imageStore = imageStore;
+        this.blobRepository = blobRepository;
+        this.locks = locks;
+    }
+
+    public record StoredImage(String url, String key, long size, String sha256, String contentType) {
+    }
+
+    public StoredImage store(MultipartFile image) throws IOException {
+        // Cheap rejection from the declared size before reading anything
+        if (image.getSize() > maxSize) {
+            throw new InvalidImageException(HttpStatus.PAYLOAD_TOO_LARGE, "Image exceeds " + maxSize + " bytes");
+        }
+        Files.createDirectories(stagingDir);
+
+        Path temp = Files.createTempFile(stagingDir, "upload-", ".tmp");
+        try (InputStream in = image.getInputStream();
+             ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            MessageDigest digest = sha256();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+            // Fill the first buffer completely so the format can be recognised from its magic bytes
+            while (buffer.hasRemaining()) {
+                if (source.read(buffer) == -1) {
+                    break;
+                }
+            }
+            buffer.flip();
+            if (!buffer.hasRemaining()) {
+                throw new InvalidImageException(HttpStatus.BAD_REQUEST, "Image is empty");
+            }
+            String contentType = sniffContentType(buffer);
+            if (contentType == null || !allowedTypes.contains(contentType)) {
+                throw new InvalidImageException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported image type");
+            }
+
+            long total = 0;
+            while (buffer.hasRemaining()) {
+                total += buffer.remaining();
+                if (total > maxSize) {
+                    throw new InvalidImageException(HttpStatus.PAYLOAD_TOO_LARGE, "Image exceeds " + maxSize + " bytes");
+                }
+                buffer.mark();
+                digest.update(buffer);
+                buffer.reset();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+                if (source.read(buffer) == -1) {
+                    break;
+                }
+                buffer.flip();
+            }
+            target.force(false);
+            target.close();
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String key = keyFor(hash, contentType);
+            Lock lock = locks.forKey(key);
+            lock.lock();
+            try {
+                if (blobRepository.incrementRefCount(hash) == 0) {
+                    imageStore.put(key, temp, contentType);
+                    try {
+                        blobRepository.saveAndFlush(new ImageBlob(hash, key, contentType, total));
+                    } catch (DataIntegrityViolationException e) {
+                        blobRepository.incrementRefCount(hash); // An identical upload registered the blob first
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            return new StoredImage(URL_PREFIX + key, key, total, hash, contentType);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Drops one reference to the image behind {@code imageUrl} and deletes the
+     * blob once nothing points at it. Pre-content-addressing uploads have no
+     * blob row and belonged to a single recipe, so they are deleted directly.
+     */
+    public void release(String imageUrl) throws IOException {
+        if (imageUrl == null || !imageUrl.startsWith(URL_PREFIX)) {
+            return;
+        }
+        String key = imageUrl.substring(URL_PREFIX.length());
+        Optional<ImageBlob> blob = blobRepository.findByStorageKey(key);
+        if (blob.isEmpty()) {
+            deleteWithVariants(key);
+            return;
+        }
+        String hash = blob.get().getHash();
+        Lock lock = locks.forKey(key);
+        lock.lock();
+        try {
+            blobRepository.decrementRefCount(hash);
+            if (blobRepository.deleteIfUnreferenced(hash) == 1) {
+                deleteWithVariants(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deleteWithVariants(String key) throws IOException {
+        imageStore.delete(key);
+        for (ImageVariant variant : ImageVariant.values()) {
+            imageStore.delete(variant.keyFor(key));
+        }
+    }
+
+    // "ab/cd/abcd...ef.jpg": two levels of 256-way sharding keep directories small
+    static String keyFor(String hash, String contentType) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extensionFor(contentType);
+    }
+
+    private static String extensionFor(String contentType) {
+        return switch (contentType) {
+            case "image/jpeg" -> ".jpg";
+            case "image/png" -> ".png";
+            case "image/gif" -> ".gif";
+            case "image/webp" -> ".webp";
+            default -> "";
+        };
+    }
+
+    static String sniffContentType(ByteBuffer head) {
+        int n = head.remaining();
+        int p = head.position();
+        if (n >= 3 && (head.get(p) & 0xFF) == 0xFF && (head.get(p + 1) & 0xFF) == 0xD8 && (head.get(p + 2) & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (n >= 8 && (head.get(p) & 0xFF) == 0x89 && head.get(p + 1) == 'P' && head.get(p + 2) == 'N' && head.get(p + 3) == 'G') {
+            return "image/png";
+        }
+        if (n >= 6 && head.get(p) == 'G' && head.get(p + 1) == 'I' && head.get(p + 2) == 'F' && head.get(p + 3) == '8') {
+            return "image/gif";
+        }
+        if (n >= 12 && head.get(p) == 'R' && head.get(p + 1) == 'I' && head.get(p + 2) == 'F' && head.get(p + 3) == 'F'
+                && head.get(p + 8) == 'W' && head.get(p + 9) == 'E' && head.get(p + 10) == 'B' && head.get(p + 11) == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.recipevault.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.storage.ImageStore;
+import com.recipevault.storage.ImageVariant;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Generates the resized {@link ImageVariant}s for uploaded images on a small
+ * bounded worker pool, using only ImageIO and Java2D. Recipes serve the
+ * original until the variants exist; when the queue is full the job is
+ * dropped and the original simply keeps being served.
+ */
+@Service
+public class ImageVariantService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final String URL_PREFIX = "/uploads/";
+    // Refuse to decode anything larger than this many pixels (~ a 48 MP photo)
+    private static final long MAX_SOURCE_PIXELS = 50_000_000L;
+
+    private final ImageStore imageStore;
+    private final RecipeRepository recipeRepository;
+    private final RecipeVersions versions;
+    private final Path stagingDir;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalProcessingNanos = new LongAdder();
+    private final AtomicLong maxProcessingNanos = new AtomicLong();
+    private final LongAdder totalQueueNanos = new LongAdder();
+
+    public ImageVariantService(ImageStore imageStore, RecipeRepository recipeRepository, RecipeVersions versions,
+                               @Value("${file.upload-dir}") String uploadDir,
+                               @Value("${image.variants.threads:2}") int threads,
+                               @Value("${image.variants.queue-capacity:200}") int queueCapacity,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.imageStore = imageStore;
+        this.recipeRepository = recipeRepository;
+        this.versions = versions;
+        this.stagingDir = Paths.get(uploadDir, ".staging");
+        // Resizing is CPU-bound, so the pool size stays the concurrency limit in either mode
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                virtualThreads ? Thread.ofVirtual().name("image-variants-", 1).factory() : platformThreads(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public record Stats(int queueDepth, int activeWorkers, long completed, long failed, long rejected,
+                        double averageProcessingMillis, double maxProcessingMillis, double averageQueueMillis) {
+    }
+
+    /** Queues variant generation for an uploaded image; never blocks the caller. */
+    public void enqueue(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(URL_PREFIX)) {
+            return;
+        }
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                totalQueueNanos.add(startedAt - enqueuedAt);
+                try {
+                    generate(imageUrl);
+                    completed.increment();
+                } catch (Exception e) {
+                    failed.increment();
+                    logger.warn("Could not generate variants for {}: {}", imageUrl, e.getMessage());
+                } finally {
+                    long elapsed = System.nanoTime() - startedAt;
+                    totalProcessingNanos.add(elapsed);
+                    maxProcessingNanos.accumulateAndGet(elapsed, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Image variant queue full, serving the original for {}", imageUrl);
+        }
+    }
+
+    public Stats stats() {
+        long done = completed.sum() + failed.sum();
+        return new Stats(
+                executor.getQueue().size(),
+                executor.getActiveCount(),
+                completed.sum(),
+                failed.sum(),
+                rejected.sum(),
+                done == 0 ? 0 : totalProcessingNanos.sum() / 1e6 / done,
+                maxProcessingNanos.get() / 1e6,
+                done == 0 ? 0 : totalQueueNanos.sum() / 1e6 / done);
+    }
+
+    /** Produces any missing variants of the image and points every recipe using it at them. */
+    void generate(String imageUrl) throws IOException {
+        String key = imageUrl.substring(URL_PREFIX.length());
+        Map<ImageVariant, String> keys = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : ImageVariant.values()) {
+            keys.put(variant, variant.keyFor(key));
+        }
+
+        // Content-addressed keys mean a deduplicated upload may already have its variants
+        boolean missing = false;
+        for (String variantKey : keys.values()) {
+            missing |= imageStore.get(variantKey) == null;
+        }
+        if (missing) {
+            Resource original = imageStore.get(key);
+            if (original == null) {
+                return; // Deleted before we got to it
+            }
+            BufferedImage source = decode(original, ImageVariant.DETAIL.getMaxWidth());
+            for (ImageVariant variant : ImageVariant.values()) {
+                write(resize(source, variant.getMaxWidth()), variant, keys.get(variant));
+            }
+        }
+        List<Long> updated = recipeRepository.setImageVariants(imageUrl,
+                URL_PREFIX + keys.get(ImageVariant.CARD),
+                URL_PREFIX + keys.get(ImageVariant.DETAIL));
+        versions.bumpAll(updated); // Their JSON now carries the variant URLs
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory platformThreads() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1); // Yield to request threads
+            return thread;
+        };
+    }
+
+    // Decode with source subsampling so a 4000 px photo is never fully inflated just to make a 640 px card
+    private static BufferedImage decode(Resource original, int targetWidth) throws IOException {
+        try (InputStream in = original.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("No decoder for " + original.getDescription());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Image is " + width + "x" + height + ", too large to resize");
+                }
+                // Keep at least twice the target width so the final downscale still has detail to average
+                int step = Math.max(1, width / (targetWidth * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halve repeatedly with bilinear filtering, then take the last step exactly; much sharper than one big jump
+    static BufferedImage resize(BufferedImage source, int maxWidth) {
+        int targetWidth = Math.min(maxWidth, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE); // JPEG has no alpha; flatten transparent PNG/GIF onto white
+                g.fillRect(0, 0, width, height);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void write(BufferedImage image, ImageVariant variant, String variantKey) throws IOException {
+        Files.createDirectories(stagingDir);
+        Path temp = Files.createTempFile(stagingDir, "variant-", ".jpg");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(variant.getQuality());
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            imageStore.put(variantKey, temp, "image/jpeg");
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
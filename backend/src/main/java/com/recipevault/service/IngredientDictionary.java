@@ -0,0 +1,149 @@
+package com.recipevault.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.recipevault.model.CanonicalIngredient;
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.repository.CanonicalIngredientRepository;
+import com.recipevault.util.IngredientNormalizer;
+import com.recipevault.util.IngredientNormalizer.ParsedLine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * The ingredient dictionary, interned in memory: every entry is loaded at
+ * startup and looked up by key or id without a query. New entries are
+ * written in their own transaction, so they stay valid even if the recipe
+ * that introduced them rolls back.
+ */
+@Service
+public class IngredientDictionary {
+    private static final Logger logger = LoggerFactory.getLogger(IngredientDictionary.class);
+
+    private final CanonicalIngredientRepository repository;
+    private final TransactionTemplate newTransaction;
+
+    private final Map<String, CanonicalIngredient> byKey = new ConcurrentHashMap<>();
+    private final Map<Long, CanonicalIngredient> byId = new ConcurrentHashMap<>();
+    // Not synchronized: the insert blocks on the database, which would pin a virtual thread to its carrier
+    private final Lock addLock = new ReentrantLock();
+
+    public IngredientDictionary(CanonicalIngredientRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** A recipe line resolved to its dictionary entry plus the quantity and name it was written with. */
+    public record Resolved(CanonicalIngredient ingredient, String quantity, String name) {
+    }
+
+    @PostConstruct
+    public void load() {
+        repository.findAll().forEach(this::intern);
+        logger.info("Ingredient dictionary loaded with {} entries", byId.size());
+    }
+
+    /** Resolves recipe lines in order, adding any ingredients not seen before in one transaction. */
+    public List<Resolved> resolveAll(List<String> lines) {
+        List<ParsedLine> parsed = new ArrayList<>(lines.size());
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (String line : lines) {
+            ParsedLine parsedLine = IngredientNormalizer.parse(line);
+            parsed.add(parsedLine);
+            if (!byKey.containsKey(parsedLine.key())) {
+                missing.putIfAbsent(parsedLine.key(), parsedLine.name());
+            }
+        }
+        if (!missing.isEmpty()) {
+            add(missing);
+        }
+
+        List<Resolved> resolved = new ArrayList<>(parsed.size());
+        for (ParsedLine parsedLine : parsed) {
+            resolved.add(new Resolved(byKey.get(parsedLine.key()), parsedLine.quantity(), parsedLine.name()));
+        }
+        return resolved;
+    }
+
+    /** The recipe's ingredient rows for the given lines, in order. */
+    public List<Ingredient> link(Recipe recipe, List<String> lines) {
+        List<Resolved> resolved = resolveAll(lines);
+        List<Ingredient> ingredients = new ArrayList<>(resolved.size());
+        for (int i = 0; i < resolved.size(); i++) {
+            Resolved line = resolved.get(i);
+            ingredients.add(new Ingredient(recipe, i, line.ingredient(), line.quantity(), line.name()));
+        }
+        return ingredients;
+    }
+
+    public CanonicalIngredient get(Long id) {
+        CanonicalIngredient ingredient = byId.get(id);
+        if (ingredient == null) {
+            // Written by another instance since we loaded
+            ingredient = repository.findById(id).orElseThrow(() -> new IllegalArgumentException("Unknown ingredient " + id));
+            intern(ingredient);
+        }
+        return ingredient;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // Serialised so two requests introducing the same ingredient do not both insert it
+    private void add(Map<String, String> namesByKey) {
+        addLock.lock();
+        try {
+            addMissing(namesByKey);
+        } finally {
+            addLock.unlock();
+        }
+    }
+
+    private void addMissing(Map<String, String> namesByKey) {
+        Map<String, String> missing = new LinkedHashMap<>(namesByKey);
+        missing.keySet().removeIf(byKey::containsKey);
+        if (missing.isEmpty()) {
+            return;
+        }
+        List<CanonicalIngredient> entries;
+        try {
+            entries = newTransaction.execute(status -> {
+                // Pick up entries another instance wrote since we loaded
+                List<CanonicalIngredient> found = new ArrayList<>(repository.findByNormalizedNameIn(missing.keySet()));
+                Map<String, String> toAdd = new LinkedHashMap<>(missing);
+                found.forEach(existing -> toAdd.remove(existing.getNormalizedName()));
+                List<CanonicalIngredient> added = new ArrayList<>(toAdd.size());
+                toAdd.forEach((key, name) -> added.add(new CanonicalIngredient(key, name)));
+                found.addAll(repository.saveAll(added));
+                return found;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with another instance; its rows are committed now
+            entries = repository.findByNormalizedNameIn(missing.keySet());
+        }
+        // Only interned once committed, so the cache never holds an id that was rolled back
+        entries.forEach(this::intern);
+    }
+
+    private void intern(CanonicalIngredient ingredient) {
+        byKey.put(ingredient.getNormalizedName(), ingredient);
+        byId.put(ingredient.getId(), ingredient);
+    }
+}
@@ -0,0 +1,342 @@
+package com.recipevault.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.util.IngredientNormalizer;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Answers "what can I cook with what I have" queries. Each normalised
+ * ingredient maps to a compressed bitmap of the recipes using it; a pantry
+ * query adds the covered ingredients into a bit-sliced counter and compares
+ * it against each recipe's ingredient count, so "missing at most k" is a
+ * handful of bitmap AND/OR/XOR operations rather than a self-join.
+ */
+@Service
+public class PantryMatchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(PantryMatchIndex.class);
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final RecipeRepository recipeRepository;
+    private final EntityManager entityManager;
+
+    // Bitmaps hold 32-bit values, so recipes are numbered densely from 0 rather than by their (64-bit) ids;
+    // a removed recipe's slot is handed to the next one added. Dense slots also compress better than ids
+    // with the gaps pooled sequence allocation leaves.
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private long[] idsBySlot = new long[1024];
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextSlot;
+
+    // ingredient key -> recipe slots using it
+    private final Map<String, RoaringBitmap> recipesByIngredient = new HashMap<>();
+    // head word -> ingredient keys ending in it ("egg" -> "kampung egg")
+    private final Map<String, Set<String>> keysByHead = new HashMap<>();
+    // recipe slot -> its distinct ingredient keys
+    private final Map<Integer, String[]> ingredientsByRecipe = new HashMap<>();
+    // distinct ingredient count -> recipe slots with that many ingredients
+    private final Map<Integer, RoaringBitmap> recipesByTotal = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public PantryMatchIndex(RecipeRepository recipeRepository, EntityManager entityManager) {
+        this.recipeRepository = recipeRepository;
+        this.entityManager = entityManager;
+    }
+
+    public record Match(Long recipeId, int matched, int total) {
+        public int missing() {
+            return total - matched;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            recipesByIngredient.clear();
+            keysByHead.clear();
+            ingredientsByRecipe.clear();
+            recipesByTotal.clear();
+            slotsById.clear();
+            freeSlots.clear();
+            nextSlot = 0;
+
+            // Walk the table in keyset pages and clear the persistence context between pages
+            List<Recipe> page = recipeRepository.findPage(null, null, null, null, null, Limit.of(REBUILD_BATCH_SIZE));
+            while (!page.isEmpty()) {
+                for (Recipe recipe : page) {
+                    addRecipe(recipe);
+                }
+                Recipe last = page.get(page.size() - 1);
+                entityManager.clear();
+                page = recipeRepository.findPage(null, null, null, last.getCreatedDate(), last.getId(), Limit.of(REBUILD_BATCH_SIZE));
+            }
+            recipesByIngredient.values().forEach(RoaringBitmap::runOptimize);
+            recipesByTotal.values().forEach(RoaringBitmap::runOptimize);
+            logger.info("Pantry index rebuilt with {} recipes and {} ingredients in {} ms",
+                    ingredientsByRecipe.size(), recipesByIngredient.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Recipe recipe) {
+        lock.writeLock().lock();
+        try {
+            removeRecipe(recipe.getId());
+            addRecipe(recipe);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeRecipe(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recipes sharing at least one ingredient with the pantry and missing at
+     * most {@code maxMissing} of their own, best covered first. With
+     * {@code maxMissing == 0} this is the "can make right now" subset query.
+     */
+    public List<Match> match(Collection<String> pantry, int maxMissing, int limit) {
+        Set<String> pantryKeys = normalizeAll(pantry);
+        if (pantryKeys.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> covered = new ArrayList<>();
+            for (String key : coveredKeys(pantryKeys)) {
+                covered.add(recipesByIngredient.get(key));
+            }
+            if (covered.isEmpty()) {
+                return List.of();
+            }
+
+            // Bit-sliced counter: slice j holds bit j of each recipe's covered-ingredient count
+            List<RoaringBitmap> slices = new ArrayList<>();
+            for (RoaringBitmap bitmap : covered) {
+                RoaringBitmap carry = bitmap;
+                for (int j = 0; !carry.isEmpty(); j++) {
+                    if (j == slices.size()) {
+                        slices.add(carry.clone());
+                        break;
+                    }
+                    RoaringBitmap slice = slices.get(j);
+                    RoaringBitmap nextCarry = RoaringBitmap.and(slice, carry);
+                    slices.set(j, RoaringBitmap.xor(slice, carry));
+                    carry = nextCarry;
+                }
+            }
+            RoaringBitmap candidates = FastAggregation.or(slices.iterator());
+
+            // A recipe with n ingredients qualifies when its covered count is >= n - maxMissing;
+            // evaluate that per ingredient-count group with bitmap comparisons on the slices
+            List<RoaringBitmap> qualifying = new ArrayList<>();
+            Map<Integer, RoaringBitmap> atLeast = new HashMap<>();
+            for (Map.Entry<Integer, RoaringBitmap> group : recipesByTotal.entrySet()) {
+                int threshold = Math.max(1, group.getKey() - maxMissing);
+                RoaringBitmap enough = atLeast.computeIfAbsent(threshold, t -> countAtLeast(slices, candidates, t));
+                if (!enough.isEmpty()) {
+                    qualifying.add(RoaringBitmap.and(group.getValue(), enough));
+                }
+            }
+            RoaringBitmap results = FastAggregation.or(qualifying.iterator());
+
+            Comparator<Match> order = Comparator
+                    .comparingDouble((Match m) -> (double) m.matched() / m.total())
+                    .thenComparing(Match::missing, Comparator.reverseOrder())
+                    .thenComparing(Match::recipeId);
+            PriorityQueue<Match> top = new PriorityQueue<>(order);
+
+            IntIterator it = results.getIntIterator();
+            while (it.hasNext()) {
+                int slot = it.next();
+                int matched = 0;
+                for (int j = 0; j < slices.size(); j++) {
+                    if (slices.get(j).contains(slot)) {
+                        matched |= 1 << j;
+                    }
+                }
+                int total = ingredientsByRecipe.get(slot).length;
+                Match match = new Match(idsBySlot[slot], matched, total);
+                if (top.size() < limit) {
+                    top.add(match);
+                } else if (order.compare(match, top.peek()) > 0) {
+                    top.poll();
+                    top.add(match);
+                }
+            }
+
+            List<Match> matches = new ArrayList<>(top);
+            matches.sort(order.reversed());
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A pantry item covers an ingredient when their keys are equal or one is
+     * the other's head word, so "eggs" covers "kampung eggs" and vice versa.
+     */
+    public static boolean covers(Set<String> pantryKeys, String ingredientName) {
+        String key = IngredientNormalizer.normalize(ingredientName);
+        if (key.isEmpty()) {
+            return true;
+        }
+        if (pantryKeys.contains(key) || pantryKeys.contains(IngredientNormalizer.head(key))) {
+            return true;
+        }
+        for (String pantryKey : pantryKeys) {
+            if (IngredientNormalizer.head(pantryKey).equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static Set<String> normalizeAll(Collection<String> names) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String name : names) {
+            String key = IngredientNormalizer.normalize(name);
+            if (!key.isEmpty()) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Recipes in {@code universe} whose bit-sliced count is at least {@code threshold},
+     * scanning slices from the most significant bit (O'Neil and Quass range evaluation).
+     */
+    private static RoaringBitmap countAtLeast(List<RoaringBitmap> slices, RoaringBitmap universe, int threshold) {
+        if (threshold >= 1 << slices.size()) {
+            return new RoaringBitmap();
+        }
+        RoaringBitmap greater = new RoaringBitmap();
+        RoaringBitmap equal = universe;
+        for (int j = slices.size() - 1; j >= 0; j--) {
+            RoaringBitmap slice = slices.get(j);
+            if ((threshold & (1 << j)) != 0) {
+                equal = RoaringBitmap.and(equal, slice);
+            } else {
+                greater = RoaringBitmap.or(greater, RoaringBitmap.and(equal, slice));
+                equal = RoaringBitmap.andNot(equal, slice);
+            }
+        }
+        return RoaringBitmap.or(greater, equal);
+    }
+
+    // Same rule as covers(), expressed as lookups into the index
+    private Set<String> coveredKeys(Set<String> pantryKeys) {
+        Set<String> keys = new HashSet<>();
+        for (String pantryKey : pantryKeys) {
+            if (recipesByIngredient.containsKey(pantryKey)) {
+                keys.add(pantryKey);
+            }
+            keys.addAll(keysByHead.getOrDefault(pantryKey, Set.of()));
+            String head = IngredientNormalizer.head(pantryKey);
+            if (recipesByIngredient.containsKey(head)) {
+                keys.add(head);
+            }
+        }
+        return keys;
+    }
+
+    private void addRecipe(Recipe recipe) {
+        int slot = assignSlot(recipe.getId());
+        List<String> names = new ArrayList<>();
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                names.add(ingredient.getIngredientName());
+            }
+        }
+        Set<String> keys = normalizeAll(names);
+        for (String key : keys) {
+            recipesByIngredient.computeIfAbsent(key, k -> new RoaringBitmap()).add(slot);
+            keysByHead.computeIfAbsent(IngredientNormalizer.head(key), h -> new HashSet<>()).add(key);
+        }
+        ingredientsByRecipe.put(slot, keys.toArray(String[]::new));
+        recipesByTotal.computeIfAbsent(keys.size(), n -> new RoaringBitmap()).add(slot);
+    }
+
+    private void removeRecipe(Long recipeId) {
+        Integer removed = slotsById.remove(recipeId);
+        if (removed == null) {
+            return;
+        }
+        int slot = removed;
+        freeSlots.push(slot);
+        String[] keys = ingredientsByRecipe.remove(slot);
+        RoaringBitmap sameTotal = recipesByTotal.get(keys.length);
+        sameTotal.remove(slot);
+        if (sameTotal.isEmpty()) {
+            recipesByTotal.remove(keys.length);
+        }
+        for (String key : keys) {
+            RoaringBitmap bitmap = recipesByIngredient.get(key);
+            bitmap.remove(slot);
+            if (bitmap.isEmpty()) {
+                recipesByIngredient.remove(key);
+                Set<String> siblings = keysByHead.get(IngredientNormalizer.head(key));
+                siblings.remove(key);
+                if (siblings.isEmpty()) {
+                    keysByHead.remove(IngredientNormalizer.head(key));
+                }
+            }
+        }
+    }
+
+    private int assignSlot(Long recipeId) {
+        Integer free = freeSlots.poll();
+        int slot = free != null ? free : nextSlot++;
+        if (slot == idsBySlot.length) {
+            idsBySlot = Arrays.copyOf(idsBySlot, slot * 2);
+        }
+        idsBySlot[slot] = recipeId;
+        slotsById.put(recipeId, slot);
+        return slot;
+    }
+}
@@ -0,0 +1,211 @@
+package com.recipevault.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.recipevault.exception.ServiceBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The one place passwords are hashed. BCrypt is deliberately CPU-bound, so
+ * it runs on a small pool of its own (half the cores by default) behind a
+ * short queue: a login storm queues here while the remaining cores keep
+ * serving recipes. When the queue is full, or one username or client
+ * address already has its share of hashes in flight, the request is
+ * refused at once with a 429 rather than waiting.
+ */
+@Service
+public class PasswordHasher {
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final BCryptPasswordEncoder encoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final int maxPerUser;
+    private final int maxPerClient;
+
+    // In-flight hashes per key; entries are removed when they drop to zero
+    private final ConcurrentHashMap<String, Integer> perUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> perClient = new ConcurrentHashMap<>();
+
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer queueTimer;
+    private final MeterRegistry meterRegistry;
+
+    public PasswordHasher(@Value("${auth.bcrypt.strength:10}") int strength,
+                          @Value("${auth.bcrypt.threads:0}") int threads,
+                          @Value("${auth.bcrypt.queue-capacity:32}") int queueCapacity,
+                          @Value("${auth.bcrypt.max-per-user:2}") int maxPerUser,
+                          @Value("${auth.bcrypt.max-per-client:4}") int maxPerClient,
+                          MeterRegistry meterRegistry) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.maxPerUser = maxPerUser;
+        this.maxPerClient = maxPerClient;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        // Always platform threads, even in virtual-thread mode: the pool size is what caps the CPU BCrypt can take
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+
+        this.meterRegistry = meterRegistry;
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchTimer = hashTimer(meterRegistry, "match");
+        this.queueTimer = Timer.builder("auth.password.queue")
+                .description("Time password hashes wait for a hasher thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+    }
+
+    /** Whether a password matched, and its new hash when the stored one used a different cost. */
+    public record Verification(boolean matches, String upgradedHash) {
+    }
+
+    /** Hashes a password outside any request, e.g. for seed data. */
+    public String encode(String rawPassword) {
+        return encode(rawPassword, null, null);
+    }
+
+    /**
+     * @throws ServiceBusyException (429) if the hasher, the username or the client is at its limit
+     */
+    public String encode(String rawPassword, String username, String clientAddress) {
+        return submit(username, clientAddress, () -> encodeTimer.record(() -> encoder.encode(rawPassword)));
+    }
+
+    /**
+     * Checks a password, rehashing it in the same job when the stored hash
+     * was made with another cost, so a changed {@code auth.bcrypt.strength}
+     * reaches each account at its next login.
+     *
+     * @throws ServiceBusyException (429) if the hasher, the username or the client is at its limit
+     */
+    public Verification verify(String rawPassword, String hash, String username, String clientAddress) {
+        return submit(username, clientAddress, () -> {
+            boolean matches = matchTimer.record(() -> encoder.matches(rawPassword, hash));
+            if (!matches || costOf(hash) == strength) {
+                return new Verification(matches, null);
+            }
+            return new Verification(true, encodeTimer.record(() -> encoder.encode(rawPassword)));
+        });
+    }
+
+    // "$2a$10$..." -> 10
+    private static int costOf(String hash) {
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    // Package-private so tests can hold a slot with work of their own
+    <T> T submit(String username, String clientAddress, Callable<T> work) {
+        if (!enter(perUser, username, maxPerUser)) {
+            throw busy("user", "Too many sign-in attempts for this account");
+        }
+        try {
+            if (!enter(perClient, clientAddress, maxPerClient)) {
+                throw busy("client", "Too many sign-in attempts from this address");
+            }
+            try {
+                long queuedAt = System.nanoTime();
+                Future<T> result;
+                try {
+                    result = executor.submit(() -> {
+                        queueTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                        return work.call();
+                    });
+                } catch (RejectedExecutionException e) {
+                    throw busy("queue", "Too many sign-ins in progress");
+                }
+                return await(result);
+            } finally {
+                leave(perClient, clientAddress);
+            }
+        } finally {
+            leave(perUser, username);
+        }
+    }
+
+    private static <T> T await(Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static boolean enter(ConcurrentHashMap<String, Integer> inFlight, String key, int limit) {
+        if (key == null) {
+            return true;
+        }
+        boolean[] admitted = {false};
+        inFlight.compute(key, (k, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= limit) {
+                return count;
+            }
+            admitted[0] = true;
+            return current + 1;
+        });
+        return admitted[0];
+    }
+
+    private static void leave(ConcurrentHashMap<String, Integer> inFlight, String key) {
+        if (key != null) {
+            inFlight.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    // The reason tag has three values; the limited key itself never becomes a tag
+    private ServiceBusyException busy(String reason, String message) {
+        Counter.builder("auth.password.rejected").tag("reason", reason).register(meterRegistry).increment();
+        return new ServiceBusyException(HttpStatus.TOO_MANY_REQUESTS, message, RETRY_AFTER);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hash")
+                .description("BCrypt password hashing")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,166 @@
+package com.recipevault.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.recipevault.exception.ServiceBusyException;
+import com.recipevault.model.Difficulty;
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.repository.RecipeRepository.ExportRow;
+import com.recipevault.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Streams the catalogue as NDJSON, one recipe per line, in id order. Rows
+ * come off a database cursor and each recipe is written as soon as its last
+ * ingredient has been read, so memory does not grow with the catalogue. The
+ * output can be fed straight back into {@link RecipeImportService}.
+ */
+@Service
+public class RecipeExportService {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeExportService.class);
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(30);
+
+    private final RecipeRepository recipeRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter recipeWriter;
+    // Each export holds a pooled connection for its whole run; bound them so requests keep the rest
+    private final Semaphore slots;
+    private final Timer exportTimer;
+    private final Counter exportedRecipes;
+    private final Counter busyRejections;
+
+    public RecipeExportService(RecipeRepository recipeRepository, UserRepository userRepository, PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper, @Value("${recipes.export.max-concurrent:2}") int maxConcurrent,
+                               MeterRegistry meterRegistry) {
+        this.recipeRepository = recipeRepository;
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // One generator for the whole export; the container flushes as its buffer fills rather than per recipe
+        this.recipeWriter = objectMapper.writerFor(ExportedRecipe.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.slots = new Semaphore(maxConcurrent);
+        this.exportTimer = Timer.builder("recipes.export").description("Catalogue exports").register(meterRegistry);
+        this.exportedRecipes = Counter.builder("recipes.export.recipes").register(meterRegistry);
+        this.busyRejections = Counter.builder("recipes.export.rejected").description("Exports refused because all slots were taken")
+                .register(meterRegistry);
+        Gauge.builder("recipes.export.active", slots, s -> maxConcurrent - s.availablePermits()).register(meterRegistry);
+    }
+
+    /** Narrows the export; every field is optional, and the date range is half-open. */
+    public record Filter(String username, LocalDateTime from, LocalDateTime to) {
+    }
+
+    public record ExportedRecipe(Long id, String title, Difficulty difficulty, String instructions, List<String> ingredients,
+                                 String imageUrl, String username, LocalDateTime createdDate) {
+    }
+
+    /** Opens the response body; only called once the export is sure to start. */
+    @FunctionalInterface
+    public interface BodyOpener {
+        OutputStream open() throws IOException;
+    }
+
+    /**
+     * Writes every matching recipe and returns how many there were.
+     *
+     * @throws IllegalArgumentException if the filter names an unknown user
+     * @throws ServiceBusyException if too many exports are already running
+     */
+    public long export(Filter filter, BodyOpener opener) throws IOException {
+        Long userId = null;
+        if (filter.username() != null) {
+            userId = userRepository.findByUsername(filter.username()).map(UserInfo::getId)
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown user " + filter.username()));
+        }
+        if (!slots.tryAcquire()) {
+            busyRejections.increment();
+            throw new ServiceBusyException("Too many exports are running", RETRY_AFTER);
+        }
+        long start = System.nanoTime();
+        try (OutputStream out = opener.open()) {
+            Long owner = userId;
+            long exported = readOnlyTransaction.execute(status -> {
+                try (Stream<ExportRow> rows = recipeRepository.streamExportRows(owner, filter.from(), filter.to());
+                     SequenceWriter writer = recipeWriter.writeValues(out)) {
+                    long count = write(rows.iterator(), writer);
+                    writer.flush();
+                    if (count > 0) {
+                        out.write('\n');
+                    }
+                    return count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            long elapsed = System.nanoTime() - start;
+            exportTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            exportedRecipes.increment(exported);
+            logger.info("Exported {} recipes in {} ms", exported, elapsed / 1_000_000);
+            return exported;
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Usually the client went away
+        } finally {
+            slots.release();
+        }
+    }
+
+    // Rows arrive grouped by recipe; emit each recipe when the next one starts
+    private long write(Iterator<ExportRow> rows, SequenceWriter writer) throws IOException {
+        long count = 0;
+        ExportRow current = null;
+        List<String> ingredients = new ArrayList<>();
+        while (rows.hasNext()) {
+            ExportRow row = rows.next();
+            if (current != null && !current.getId().equals(row.getId())) {
+                writeRecipe(current, ingredients, writer);
+                count++;
+                ingredients = new ArrayList<>();
+            }
+            current = row;
+            if (row.getIngredientName() != null) {
+                ingredients.add(Ingredient.line(row.getQuantity(), row.getIngredientName()));
+            }
+        }
+        if (current != null) {
+            writeRecipe(current, ingredients, writer);
+            count++;
+        }
+        return count;
+    }
+
+    private static void writeRecipe(ExportRow row, List<String> ingredients, SequenceWriter writer) throws IOException {
+        writer.write(new ExportedRecipe(row.getId(), row.getTitle(), row.getDifficulty(), row.getInstructions(),
+                ingredients, row.getImageUrl(), row.getUsername(), row.getCreatedDate()));
+    }
+}
@@ -0,0 +1,398 @@
+package com.recipevault.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.recipevault.model.Difficulty;
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.util.CsvReader;
+import com.recipevault.util.CsvReader.MalformedRecordException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Bulk recipe import from NDJSON or CSV. Rows are parsed one at a time,
+ * validated, and written in chunks of one transaction each, so memory stays
+ * flat however large the upload is. Each chunk is persisted through Hibernate
+ * with sequence ids, which lets it batch the recipe and ingredient INSERTs.
+ * A row that fails is reported and skipped; it never aborts the import.
+ */
+@Service
+public class RecipeImportService {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImportService.class);
+
+    // Bounds what a single row may buffer; real recipes are a few KB
+    private static final int MAX_RECORD_CHARS = 256 * 1024;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_INGREDIENTS = 200;
+    private static final String CSV_INGREDIENT_SEPARATOR = "\\|";
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader rowReader;
+    private final RecipeSearchIndex searchIndex;
+    private final PantryMatchIndex pantryIndex;
+    private final RecipeVersions versions;
+    private final IngredientDictionary dictionary;
+    private final int chunkSize;
+    private final Timer importTimer;
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    public RecipeImportService(UserRepository userRepository, EntityManager entityManager, PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper, RecipeSearchIndex searchIndex, PantryMatchIndex pantryIndex, RecipeVersions versions,
+                               IngredientDictionary dictionary, @Value("${recipes.import.chunk-size:500}") int chunkSize,
+                               MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rowReader = objectMapper.readerFor(Row.class);
+        this.searchIndex = searchIndex;
+        this.pantryIndex = pantryIndex;
+        this.versions = versions;
+        this.dictionary = dictionary;
+        this.chunkSize = chunkSize;
+        this.importTimer = Timer.builder("recipes.import").description("Bulk recipe imports").register(meterRegistry);
+        this.importedRows = Counter.builder("recipes.import.rows").tag("outcome", "imported").register(meterRegistry);
+        this.failedRows = Counter.builder("recipes.import.rows").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    /** One imported recipe; the same shape as a line of the NDJSON export. */
+    public record Row(String title, String difficulty, String instructions, List<String> ingredients) {
+    }
+
+    public record RowError(long line, String message) {
+    }
+
+    public record Progress(long rows, long imported, long failed) {
+    }
+
+    public record Report(long rows, long imported, long failed, long durationMillis) {
+    }
+
+    /** Receives results while the import runs, e.g. to stream them back to the client. */
+    public interface Listener {
+        void onError(RowError error) throws IOException;
+
+        void onProgress(Progress progress) throws IOException;
+    }
+
+    private record Pending(long line, Recipe recipe, List<String> ingredients) {
+    }
+
+    private interface RowSource {
+        /** The next row, or null at the end of the input. */
+        Row next() throws IOException;
+
+        long line();
+    }
+
+    /**
+     * Imports every valid row as a recipe owned by {@code username}.
+     *
+     * @throws IllegalArgumentException if the input cannot be read at all (e.g. a CSV without the required header)
+     */
+    public Report importRecipes(String username, Format format, InputStream body, Listener listener) throws IOException {
+        long start = System.nanoTime();
+        UserInfo user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
+        Reader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        RowSource source = format == Format.CSV ? csvSource(reader) : ndjsonSource(reader);
+
+        long rows = 0;
+        long imported = 0;
+        long failed = 0;
+        List<Pending> chunk = new ArrayList<>(chunkSize);
+        while (true) {
+            Row row;
+            try {
+                row = source.next();
+            } catch (MalformedRecordException e) {
+                rows++;
+                failed++;
+                listener.onError(new RowError(e.getLine(), e.getMessage()));
+                continue;
+            }
+            if (row == null) {
+                break;
+            }
+            rows++;
+            String problem = validate(row);
+            if (problem != null) {
+                failed++;
+                listener.onError(new RowError(source.line(), problem));
+                continue;
+            }
+            chunk.add(new Pending(source.line(), toRecipe(row), row.ingredients()));
+            if (chunk.size() == chunkSize) {
+                int written = write(user.getId(), chunk, listener);
+                imported += written;
+                failed += chunk.size() - written;
+                chunk.clear();
+                listener.onProgress(new Progress(rows, imported, failed));
+            }
+        }
+        if (!chunk.isEmpty()) {
+            int written = write(user.getId(), chunk, listener);
+            imported += written;
+            failed += chunk.size() - written;
+        }
+        listener.onProgress(new Progress(rows, imported, failed));
+
+        long elapsed = System.nanoTime() - start;
+        importTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        importedRows.increment(imported);
+        failedRows.increment(failed);
+        Report report = new Report(rows, imported, failed, elapsed / 1_000_000);
+        logger.info("Imported {} of {} recipes for {} in {} ms", imported, rows, username, report.durationMillis());
+        return report;
+    }
+
+    // Returns how many rows were committed
+    private int write(Long userId, List<Pending> chunk, Listener listener) throws IOException {
+        linkIngredients(chunk);
+        try {
+            persist(userId, chunk);
+            committed(chunk);
+            return chunk.size();
+        } catch (RuntimeException e) {
+            logger.warn("Import chunk failed ({}), retrying its rows one by one", e.getMessage());
+        }
+
+        // Isolate the offending rows; everything else still goes in
+        List<Pending> written = new ArrayList<>();
+        for (Pending pending : chunk) {
+            resetIds(pending.recipe());
+            try {
+                persist(userId, List.of(pending));
+                written.add(pending);
+            } catch (RuntimeException e) {
+                listener.onError(new RowError(pending.line(), "Could not be saved"));
+            }
+        }
+        committed(written);
+        return written.size();
+    }
+
+    // One dictionary lookup for the whole chunk, so new ingredients are added in a single transaction
+    private void linkIngredients(List<Pending> chunk) {
+        List<String> lines = new ArrayList<>();
+        for (Pending pending : chunk) {
+            lines.addAll(pending.ingredients());
+        }
+        Iterator<IngredientDictionary.Resolved> resolved = dictionary.resolveAll(lines).iterator();
+        for (Pending pending : chunk) {
+            List<Ingredient> ingredients = new ArrayList<>(pending.ingredients().size());
+            for (int position = 0; position < pending.ingredients().size(); position++) {
+                IngredientDictionary.Resolved line = resolved.next();
+                ingredients.add(new Ingredient(pending.recipe(), position, line.ingredient(), line.quantity(), line.name()));
+            }
+            pending.recipe().setIngredients(ingredients);
+        }
+    }
+
+    private void persist(Long userId, List<Pending> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            UserInfo owner = entityManager.getReference(UserInfo.class, userId);
+            for (Pending pending : chunk) {
+                pending.recipe().setUser(owner);
+                entityManager.persist(pending.recipe());
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private void committed(List<Pending> written) {
+        List<Long> ids = new ArrayList<>(written.size());
+        for (Pending pending : written) {
+            searchIndex.index(pending.recipe());
+            pantryIndex.index(pending.recipe());
+            ids.add(pending.recipe().getId());
+        }
+        versions.bumpAll(ids);
+    }
+
+    // A rolled back persist leaves sequence ids behind, which would make the retry look like a detached entity
+    private static void resetIds(Recipe recipe) {
+        recipe.setId(null);
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            ingredient.setId(null);
+        }
+    }
+
+    private static String validate(Row row) {
+        if (row.title() == null || row.title().isBlank()) {
+            return "Title is required";
+        }
+        if (row.title().length() > MAX_TEXT_LENGTH) {
+            return "Title is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (parseDifficulty(row.difficulty()) == null) {
+            return "Difficulty must be one of EASY, MEDIUM, HARD";
+        }
+        if (row.ingredients() == null || row.ingredients().isEmpty()) {
+            return "At least one ingredient is required";
+        }
+        if (row.ingredients().size() > MAX_INGREDIENTS) {
+            return "More than " + MAX_INGREDIENTS + " ingredients";
+        }
+        for (String ingredient : row.ingredients()) {
+            if (ingredient == null || ingredient.isBlank()) {
+                return "Ingredients must not be blank";
+            }
+            if (ingredient.length() > MAX_TEXT_LENGTH) {
+                return "Ingredient is longer than " + MAX_TEXT_LENGTH + " characters";
+            }
+        }
+        return null;
+    }
+
+    private static Difficulty parseDifficulty(String difficulty) {
+        if (difficulty == null) {
+            return null;
+        }
+        try {
+            return Difficulty.valueOf(difficulty.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Ingredients are linked per chunk; see linkIngredients
+    private static Recipe toRecipe(Row row) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(row.title().trim());
+        recipe.setDifficulty(parseDifficulty(row.difficulty()));
+        recipe.setInstructions(row.instructions());
+        recipe.setIngredientCount(row.ingredients().size());
+        return recipe;
+    }
+
+    private RowSource ndjsonSource(Reader reader) {
+        return new RowSource() {
+            private final StringBuilder buffer = new StringBuilder();
+            private long lineNumber;
+            private long rowLine;
+
+            @Override
+            public Row next() throws IOException {
+                while (true) {
+                    int length = 0;
+                    int c;
+                    buffer.setLength(0);
+                    while ((c = reader.read()) != -1 && c != '\n') {
+                        if (++length <= MAX_RECORD_CHARS) {
+                            buffer.append((char) c);
+                        }
+                    }
+                    if (c == -1 && length == 0) {
+                        return null;
+                    }
+                    rowLine = ++lineNumber;
+                    if (length > MAX_RECORD_CHARS) {
+                        throw new MalformedRecordException("Line is longer than " + MAX_RECORD_CHARS + " characters", rowLine);
+                    }
+                    if (buffer.toString().isBlank()) {
+                        continue;
+                    }
+                    try {
+                        return rowReader.readValue(buffer.toString());
+                    } catch (JsonProcessingException e) {
+                        throw new MalformedRecordException("Invalid JSON: " + e.getOriginalMessage(), rowLine);
+                    }
+                }
+            }
+
+            @Override
+            public long line() {
+                return rowLine;
+            }
+        };
+    }
+
+    // The header names the columns: title, difficulty and ingredients ("a|b|c") are required, instructions is optional
+    private static RowSource csvSource(Reader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader, MAX_RECORD_CHARS);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("title", "difficulty", "ingredients")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing the '" + required + "' column");
+            }
+        }
+        int title = columns.get("title");
+        int difficulty = columns.get("difficulty");
+        int ingredients = columns.get("ingredients");
+        Integer instructions = columns.get("instructions");
+
+        return new RowSource() {
+            @Override
+            public Row next() throws IOException {
+                while (true) {
+                    List<String> fields = csv.next();
+                    if (fields == null) {
+                        return null;
+                    }
+                    if (fields.size() == 1 && fields.get(0).isBlank()) {
+                        continue; // Blank line
+                    }
+                    if (fields.size() != header.size()) {
+                        throw new MalformedRecordException("Expected " + header.size() + " fields but found " + fields.size(), csv.line());
+                    }
+                    List<String> names = new ArrayList<>();
+                    for (String name : fields.get(ingredients).split(CSV_INGREDIENT_SEPARATOR)) {
+                        if (!name.isBlank()) {
+                            names.add(name);
+                        }
+                    }
+                    return new Row(fields.get(title), fields.get(difficulty),
+                            instructions == null ? null : fields.get(instructions), names);
+                }
+            }
+
+            @Override
+            public long line() {
+                return csv.line();
+            }
+        };
+    }
+}
@@ -0,0 +1,217 @@
+package com.recipevault.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.util.TextAnalyzer;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * In-memory inverted index over recipe titles, ingredients and instructions,
+ * ranked with BM25. Title and ingredient terms are weighted by repeating them,
+ * which keeps scoring to a single field.
+ */
+@Service
+public class RecipeSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int INGREDIENT_WEIGHT = 2;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final RecipeRepository recipeRepository;
+    private final EntityManager entityManager;
+
+    // term -> (recipe id -> weighted term frequency)
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    // recipe id -> weighted document length and the terms it contributed, for removal
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private long totalLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public RecipeSearchIndex(RecipeRepository recipeRepository, EntityManager entityManager) {
+        this.recipeRepository = recipeRepository;
+        this.entityManager = entityManager;
+    }
+
+    private record IndexedDocument(int length, Set<String> terms) {
+    }
+
+    public record Hit(Long recipeId, double score) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        // Held throughout, so an index() or remove() made meanwhile waits and lands on the rebuilt index
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+
+            // Walk the table in keyset pages and clear the persistence context between pages
+            List<Recipe> page = recipeRepository.findPage(null, null, null, null, null, Limit.of(REBUILD_BATCH_SIZE));
+            while (!page.isEmpty()) {
+                for (Recipe recipe : page) {
+                    totalLength += addDocument(recipe);
+                }
+                Recipe last = page.get(page.size() - 1);
+                entityManager.clear();
+                page = recipeRepository.findPage(null, null, null, last.getCreatedDate(), last.getId(), Limit.of(REBUILD_BATCH_SIZE));
+            }
+            logger.info("Search index rebuilt with {} recipes and {} terms in {} ms",
+                    documents.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Recipe recipe) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(recipe.getId());
+            totalLength += addDocument(recipe);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} recipe ids ordered by descending BM25 score.
+     * Any query term may match; recipes matching more and rarer terms rank higher.
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> queryTerms = TextAnalyzer.analyze(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            if (docCount == 0) {
+                return List.of();
+            }
+            double avgLength = (double) totalLength / docCount;
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : new HashSet<>(queryTerms)) {
+                Map<Long, Integer> postingList = postings.get(term);
+                if (postingList == null) {
+                    continue;
+                }
+                int df = postingList.size();
+                double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+                for (Map.Entry<Long, Integer> posting : postingList.entrySet()) {
+                    int tf = posting.getValue();
+                    int length = documents.get(posting.getKey()).length();
+                    double norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+                    scores.merge(posting.getKey(), idf * norm, Double::sum);
+                }
+            }
+
+            // Keep only the best `limit` hits; ties go to the newer (higher) id
+            Comparator<Hit> order = Comparator.comparingDouble(Hit::score).thenComparing(Hit::recipeId);
+            PriorityQueue<Hit> top = new PriorityQueue<>(order);
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                Hit hit = new Hit(entry.getKey(), entry.getValue());
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (order.compare(hit, top.peek()) > 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(order.reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int addDocument(Recipe recipe) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        countTerms(frequencies, recipe.getTitle(), TITLE_WEIGHT);
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                countTerms(frequencies, ingredient.getIngredientName(), INGREDIENT_WEIGHT);
+            }
+        }
+        countTerms(frequencies, recipe.getInstructions(), 1);
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(recipe.getId(), entry.getValue());
+            length += entry.getValue();
+        }
+        documents.put(recipe.getId(), new IndexedDocument(length, frequencies.keySet()));
+        return length;
+    }
+
+    private static void countTerms(Map<String, Integer> frequencies, String text, int weight) {
+        for (String term : TextAnalyzer.analyze(text)) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private void removeDocument(Long recipeId) {
+        IndexedDocument existing = documents.remove(recipeId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms()) {
+            Map<Long, Integer> postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(recipeId);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= existing.length();
+    }
+}
@@ -1,5 +1,8 @@
 package com.recipevault.service;
 
+import com.recipevault.config.ReplicaRoutingDataSource;
+import com.recipevault.dto.PantryMatchDTO;
+import com.recipevault.dto.RecipePageDTO;
 import com.recipevault.dto.RecipeRequestDTO;
 import com.recipevault.dto.RecipeResponseDTO;
 import com.recipevault.model.Difficulty;
@@ -8,70 +11,167 @@ import com.recipevault.model.Recipe;
 import com.recipevault.model.UserInfo;
 import com.recipevault.repository.RecipeRepository;
 import com.recipevault.repository.UserRepository;
-import com.recipevault.util.JwtUtil;
+import com.recipevault.service.ImageIngestService.StoredImage;
+import com.recipevault.util.RecipeCursor;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @Service
 public class RecipeService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final RecipeRepository recipeRepository;
     private final UserRepository userRepository;
-    private final JwtUtil jwtUtil;
+    private final RecipeSearchIndex searchIndex;
+    private final PantryMatchIndex pantryIndex;
+    private final ImageIngestService imageIngestService;
+    private final ImageVariantService imageVariantService;
+    private final RecipeVersions versions;
+    private final IngredientDictionary dictionary;
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    // Image uploads on create and update: how big, how long to store, and how many were refused
+    private final DistributionSummary uploadSize;
+    private final Timer storedUploadTimer;
+    private final Timer rejectedUploadTimer;
 
-    public RecipeService(RecipeRepository recipeRepository, UserRepository userRepository, JwtUtil jwtUtil) {
+    public RecipeService(RecipeRepository recipeRepository, UserRepository userRepository, RecipeSearchIndex searchIndex, PantryMatchIndex pantryIndex,
+                         ImageIngestService imageIngestService, ImageVariantService imageVariantService, RecipeVersions versions,
+                         IngredientDictionary dictionary, MeterRegistry meterRegistry) {
         this.recipeRepository = recipeRepository;
         this.userRepository = userRepository;
-        this.jwtUtil = jwtUtil;
+        this.searchIndex = searchIndex;
+        this.pantryIndex = pantryIndex;
+        this.imageIngestService = imageIngestService;
+        this.imageVariantService = imageVariantService;
+        this.versions = versions;
+        this.dictionary = dictionary;
+        this.uploadSize = DistributionSummary.builder("recipes.upload.size")
+                .description("Stored recipe image size")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.storedUploadTimer = uploadTimer(meterRegistry, "stored");
+        this.rejectedUploadTimer = uploadTimer(meterRegistry, "rejected");
     }
 
-    private void createUploadDirectory() {
-        File directory = new File(uploadDir);
-        if (!directory.exists()) {
-            directory.mkdir(); 
-        }
+    // Page and detail reads may come from a read replica when one is configured (see ReplicaDataSourceConfig)
+    @Transactional(readOnly = true, label = ReplicaRoutingDataSource.REPLICA)
+    public RecipePageDTO getAllRecipes(String title, String difficulty, Integer ingredientCount, String cursor, Integer size) {
+        int pageSize = pageSize(size);
+        RecipeCursor after = decode(cursor);
+        Difficulty difficultyFilter = (difficulty == null || difficulty.isBlank()) ? null : Difficulty.valueOf(difficulty.toUpperCase());
+        String titleFilter = (title == null || title.isBlank()) ? null : title.trim();
+
+        return page(recipeRepository.findPage(titleFilter, difficultyFilter, ingredientCount,
+                after == null ? null : after.getCreatedDate(), after == null ? null : after.getId(), Limit.of(pageSize + 1)), pageSize);
     }
 
-    public List<RecipeResponseDTO> getAllRecipes() {
-        return recipeRepository.findAll().stream()
-                .map(RecipeResponseDTO:: fromRecipe)
+
+    public List<RecipeResponseDTO> searchRecipes(String query, Integer limit) {
+        int maxHits = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<RecipeSearchIndex.Hit> hits = searchIndex.search(query, maxHits);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        // Load the matched rows in one query, then restore relevance order
+        Map<Long, Recipe> byId = recipeRepository.findAllWithUserByIdIn(hits.stream().map(RecipeSearchIndex.Hit::recipeId).toList())
+                .stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+        return hits.stream()
+                .map(hit -> byId.get(hit.recipeId()))
+                .filter(Objects::nonNull)
+                .map(RecipeResponseDTO::fromRecipe)
                 .toList();
     }
 
 
+    public List<PantryMatchDTO> matchPantry(List<String> pantry, Integer maxMissing, Integer limit) {
+        int allowedMissing = maxMissing == null ? 0 : Math.max(0, maxMissing);
+        int maxHits = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<PantryMatchIndex.Match> matches = pantryIndex.match(pantry, allowedMissing, maxHits);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Recipe> byId = recipeRepository.findAllWithUserByIdIn(matches.stream().map(PantryMatchIndex.Match::recipeId).toList())
+                .stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+        Set<String> pantryKeys = PantryMatchIndex.normalizeAll(pantry);
+        List<PantryMatchDTO> results = new ArrayList<>();
+        for (PantryMatchIndex.Match match : matches) {
+            Recipe recipe = byId.get(match.recipeId());
+            if (recipe == null) {
+                continue;
+            }
+            List<String> missing = recipe.getIngredients().stream()
+                    .map(Ingredient::getIngredientName)
+                    .filter(name -> !PantryMatchIndex.covers(pantryKeys, name))
+                    .toList();
+            results.add(new PantryMatchDTO(RecipeResponseDTO.fromRecipe(recipe), match.matched(), match.total(), missing));
+        }
+        return results;
+    }
+
+
+    @Transactional(readOnly = true, label = ReplicaRoutingDataSource.REPLICA)
     public Optional<RecipeResponseDTO> getRecipeById(Long id) {
         return recipeRepository.findById(id).map(RecipeResponseDTO::fromRecipe);
     }
 
 
-    public List<RecipeResponseDTO> getRecipesByUser(String username) {
+    @Transactional(readOnly = true, label = ReplicaRoutingDataSource.REPLICA)
+    public RecipePageDTO getRecipesByUser(String username, String cursor, Integer size) {
         UserInfo user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
-        return recipeRepository.findByUser(user).stream()
-                .map(RecipeResponseDTO::fromRecipe)
-                .toList();
+        int pageSize = pageSize(size);
+        RecipeCursor after = decode(cursor);
+
+        return page(recipeRepository.findPageByUser(user.getId(),
+                after == null ? null : after.getCreatedDate(), after == null ? null : after.getId(), Limit.of(pageSize + 1)), pageSize);
+    }
+
+    private static int pageSize(Integer size) {
+        return size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static RecipeCursor decode(String cursor) {
+        return (cursor == null || cursor.isBlank()) ? null : RecipeCursor.decode(cursor);
     }
 
+    // The page queries fetch one extra row to know whether another page exists without a COUNT query
+    private static RecipePageDTO page(List<Recipe> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Recipe> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? RecipeCursor.of(page.get(page.size() - 1)).encode() : null;
+
+        return new RecipePageDTO(page.stream().map(RecipeResponseDTO::fromRecipe).toList(), nextCursor);
+    }
 
-    public Recipe createRecipe(String token, RecipeRequestDTO recipeDTO) throws IOException {
-        createUploadDirectory();
 
+    public Recipe createRecipe(String username, RecipeRequestDTO recipeDTO) throws IOException {
         // Get User Information
-        String username = jwtUtil.extractUsername(token);
         UserInfo user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
 
         // Create Recipe
@@ -83,27 +183,37 @@ public class RecipeService {
 
         // Save Image if uploaded
         MultipartFile image = recipeDTO.getImage();
+        StoredImage storedImage = null;
         if (image != null && !image.isEmpty()) {
-            String fileName = UUID.randomUUID() + "-" + image.getOriginalFilename();
-            Path filePath = Paths.get(uploadDir, fileName);
-            Files.write(filePath, image.getBytes());
-            recipe.setImageUrl("/uploads/" + fileName);
+            storedImage = storeImage(image);
+            recipe.setImageUrl(storedImage.url());
         }
 
         // Save Ingredients
-        List<Ingredient> ingredients = recipeDTO.getIngredients().stream()
-                .map(ingredientName -> new Ingredient(null, ingredientName, recipe))
-                .toList();
+        List<Ingredient> ingredients = dictionary.link(recipe, recipeDTO.getIngredients());
         recipe.setIngredients(ingredients);
+        recipe.setIngredientCount(ingredients.size());
 
-        return recipeRepository.save(recipe);
+        Recipe savedRecipe;
+        try {
+            savedRecipe = recipeRepository.save(recipe);
+        } catch (RuntimeException e) {
+            if (storedImage != null) {
+                imageIngestService.release(storedImage.url()); // Don't leave an unreferenced upload behind
+            }
+            throw e;
+        }
+        versions.bump(savedRecipe.getId());
+        imageVariantService.enqueue(savedRecipe.getImageUrl());
+        searchIndex.index(savedRecipe);
+        pantryIndex.index(savedRecipe);
+        return savedRecipe;
     }
 
 
 
-    public Recipe updateRecipe(String token, Long id, RecipeRequestDTO recipeDTO, boolean removeExistingImage) throws IOException {
-        String username = jwtUtil.extractUsername(token);
-        Recipe recipe = recipeRepository.findById(id).orElse(null);
+    public Recipe updateRecipe(String username, Long id, RecipeRequestDTO recipeDTO, boolean removeExistingImage) throws IOException {
+        Recipe recipe = recipeRepository.findWithIngredientsById(id).orElse(null);
 
         if (recipe == null || !recipe.getUser().getUsername().equals(username)) {
             return null; // Not the owner
@@ -114,48 +224,53 @@ public class RecipeService {
         recipe.setDifficulty(Difficulty.valueOf(recipeDTO.getDifficulty().toUpperCase()));
         recipe.setInstructions(recipeDTO.getInstructions());
     
-        // Clear existing ingredients using Iterator to avoid orphan deletion errors
-        Iterator<Ingredient> iterator = recipe.getIngredients().iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-
-        // Add new ingredients
-        List<Ingredient> newIngredients = new ArrayList<>();
-        for (String ingredientName : recipeDTO.getIngredients()) {
-            newIngredients.add(new Ingredient(null, ingredientName, recipe));
-        }
-        recipe.getIngredients().addAll(newIngredients); 
+        // Diff against the current rows, so ingredients that did not change are not rewritten
+        syncIngredients(recipe, dictionary.resolveAll(recipeDTO.getIngredients()));
+        recipe.setIngredientCount(recipe.getIngredients().size());
         
-        // Handle Image Removal
+        // Handle Image Removal; the old blob is released only once the recipe no longer points at it
+        String oldImageUrl = recipe.getImageUrl();
         if (removeExistingImage && recipe.getImageUrl() != null) {
-            // deleteImageFromStorage(recipe.getImageUrl()); 
             recipe.setImageUrl(null); // Clear image reference in database
         }
 
         // Check if new image is uploaded
         MultipartFile image = recipeDTO.getImage();
-        if (image != null && !image.isEmpty()) {
-            String fileName = UUID.randomUUID() + "-" + image.getOriginalFilename();
-            Path filePath = Paths.get(uploadDir, fileName);
-            Files.write(filePath, image.getBytes());
+        boolean newImage = image != null && !image.isEmpty();
+        StoredImage storedImage = null;
+        if (newImage) {
+            storedImage = storeImage(image);
+            recipe.setImageUrl(storedImage.url());
+        }
+        if (newImage || removeExistingImage) {
+            // Serve the new original until its variants are generated
+            recipe.setCardImageUrl(null);
+            recipe.setDetailImageUrl(null);
+        }
     
-            // Remove old image if exists
-            if (recipe.getImageUrl() != null) {
-                Path oldFilePath = Paths.get(uploadDir, recipe.getImageUrl().replace("/uploads/", ""));
-                Files.deleteIfExists(oldFilePath);
+        Recipe savedRecipe;
+        try {
+            savedRecipe = recipeRepository.save(recipe);
+        } catch (RuntimeException e) {
+            if (storedImage != null) {
+                imageIngestService.release(storedImage.url()); // The recipe keeps its old image
             }
-    
-            // Update image URL
-            recipe.setImageUrl("/uploads/" + fileName);
+            throw e;
         }
-    
-        return recipeRepository.save(recipe);
+        versions.bump(id);
+        // A new upload took its own reference (even for identical bytes), so the old one is always dropped
+        if (oldImageUrl != null && (removeExistingImage || newImage)) {
+            imageIngestService.release(oldImageUrl);
+        }
+        if (newImage) {
+            imageVariantService.enqueue(savedRecipe.getImageUrl());
+        }
+        searchIndex.index(savedRecipe);
+        pantryIndex.index(savedRecipe);
+        return savedRecipe;
     }
 
-    public boolean deleteRecipe(String token, Long id) {
-        String username = jwtUtil.extractUsername(token);
+    public boolean deleteRecipe(String username, Long id) throws IOException {
         Recipe recipe = recipeRepository.findById(id).orElse(null);
 
         if (recipe == null || !recipe.getUser().getUsername().equals(username)) {
@@ -163,6 +278,58 @@ public class RecipeService {
         }
 
         recipeRepository.delete(recipe);
+        versions.bump(id);
+        imageIngestService.release(recipe.getImageUrl());
+        searchIndex.remove(id);
+        pantryIndex.remove(id);
         return true;
     }
+
+    private StoredImage storeImage(MultipartFile image) throws IOException {
+        long start = System.nanoTime();
+        try {
+            StoredImage stored = imageIngestService.store(image);
+            storedUploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            uploadSize.record(stored.size());
+            return stored;
+        } catch (IOException | RuntimeException e) {
+            rejectedUploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static Timer uploadTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("recipes.upload")
+                .description("Storing a recipe image upload")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record IngredientLine(Long ingredientId, String quantity, String name) {
+    }
+
+    // Reuses an existing row for every line still present (moving it if its position changed),
+    // inserts rows for new lines and lets orphan removal delete the rest
+    private static void syncIngredients(Recipe recipe, List<IngredientDictionary.Resolved> wanted) {
+        Map<IngredientLine, Deque<Ingredient>> unused = new HashMap<>();
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            unused.computeIfAbsent(new IngredientLine(ingredient.getIngredientId(), ingredient.getQuantity(), ingredient.getName()), line -> new ArrayDeque<>())
+                    .add(ingredient);
+        }
+        List<Ingredient> kept = new ArrayList<>(wanted.size());
+        for (int position = 0; position < wanted.size(); position++) {
+            IngredientDictionary.Resolved line = wanted.get(position);
+            Deque<Ingredient> matches = unused.get(new IngredientLine(line.ingredient().getId(), line.quantity(), line.name()));
+            Ingredient ingredient = matches == null ? null : matches.poll();
+            if (ingredient == null) {
+                ingredient = new Ingredient(recipe, position, line.ingredient(), line.quantity(), line.name());
+            } else if (ingredient.getPosition() != position) {
+                ingredient.setPosition(position);
+            }
+            kept.add(ingredient);
+        }
+        // Same collection instance, so Hibernate sees exactly which rows went missing
+        recipe.getIngredients().clear();
+        recipe.getIngredients().addAll(kept);
+    }
 }
@@ -0,0 +1,44 @@
+package com.recipevault.service;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory change counters behind the recipe ETags: one per recipe and one
+ * for the whole catalogue, bumped after every committed write. Reading them
+ * costs no query, so a matching If-None-Match is answered before any
+ * repository or serialization work. The counters restart with the process,
+ * so every ETag also carries a per-start epoch; this assumes a single
+ * application instance writes recipes.
+ */
+@Component
+public class RecipeVersions {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong catalogue = new AtomicLong();
+    // Only recipes changed since startup have an entry; the rest are at version 0
+    private final ConcurrentHashMap<Long, Long> recipes = new ConcurrentHashMap<>();
+
+    public void bump(Long recipeId) {
+        recipes.merge(recipeId, 1L, Long::sum);
+        catalogue.incrementAndGet();
+    }
+
+    public void bumpAll(Collection<Long> recipeIds) {
+        for (Long recipeId : recipeIds) {
+            recipes.merge(recipeId, 1L, Long::sum);
+        }
+        catalogue.incrementAndGet();
+    }
+
+    /** Strong ETag for anything derived from the whole catalogue (listings). */
+    public String catalogueETag() {
+        return "\"c-" + epoch + "-" + catalogue.get() + "\"";
+    }
+
+    public String recipeETag(Long recipeId) {
+        return "\"r" + recipeId + "-" + epoch + "-" + recipes.getOrDefault(recipeId, 0L) + "\"";
+    }
+}
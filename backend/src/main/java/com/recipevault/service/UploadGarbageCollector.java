@@ -0,0 +1,363 @@
+package com.recipevault.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.recipevault.repository.ImageBlobRepository;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.storage.ImageLocks;
+import com.recipevault.util.BloomFilter;
+
+/**
+ * Reclaims upload files no recipe points at: crash leftovers, files from
+ * before reference counting, and anything else that slipped through.
+ * <p>
+ * Mark streams every image URL from the table in keyset batches into a
+ * Bloom filter; sweep walks the upload directory and confirms each
+ * "definitely unreferenced" candidate with batched exact queries against
+ * recipes and blob reference counts. Neither phase holds the whole table or
+ * the whole file list. Each orphan is re-checked and moved under its
+ * {@link ImageLocks} stripe, so it cannot race an upload of the same bytes.
+ * Orphans are first
+ * moved to a quarantine directory and only deleted once they have sat
+ * there unreferenced for the quarantine period, so a mistake can be undone.
+ */
+@Service
+@ConditionalOnExpression("'${image.store:local}' == 'local' and ${image.gc.enabled:true}")
+public class UploadGarbageCollector {
+    private static final Logger logger = LoggerFactory.getLogger(UploadGarbageCollector.class);
+
+    private static final String URL_PREFIX = "/uploads/";
+    private static final String QUARANTINE_DIR = ".quarantine";
+    private static final String STAGING_DIR = ".staging";
+    private static final int BATCH_SIZE = 500;
+    // A 1% false positive only means an orphan survives until a later run with a different seed
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final Path root;
+    private final Path quarantine;
+    private final Path staging;
+    private final RecipeRepository recipeRepository;
+    private final ImageBlobRepository blobRepository;
+    private final ImageLocks locks;
+    private final Duration gracePeriod;
+    private final Duration quarantinePeriod;
+    private final long nanosPerFile;
+    private final Set<String> keep;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Report lastReport;
+
+    public UploadGarbageCollector(@Value("${file.upload-dir}") String uploadDir,
+                                  RecipeRepository recipeRepository,
+                                  ImageBlobRepository blobRepository,
+                                  ImageLocks locks,
+                                  @Value("${image.gc.grace-period:1d}") Duration gracePeriod,
+                                  @Value("${image.gc.quarantine-period:7d}") Duration quarantinePeriod,
+                                  @Value("${image.gc.max-files-per-second:500}") int maxFilesPerSecond,
+                                  @Value("${image.gc.keep:placeholder.jpg}") List<String> keep) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.quarantine = root.resolve(QUARANTINE_DIR);
+        this.staging = root.resolve(STAGING_DIR);
+        this.recipeRepository = recipeRepository;
+        this.blobRepository = blobRepository;
+        this.locks = locks;
+        this.gracePeriod = gracePeriod;
+        this.quarantinePeriod = quarantinePeriod;
+        this.nanosPerFile = maxFilesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxFilesPerSecond : 0;
+        this.keep = Set.copyOf(keep);
+    }
+
+    public record Report(long scannedFiles, long quarantinedFiles, long quarantinedBytes, long restoredFiles,
+                         long deletedFiles, long reclaimedBytes, long durationMillis) {
+    }
+
+    @Scheduled(cron = "${image.gc.cron:0 30 3 * * *}")
+    public void scheduledCollect() {
+        try {
+            collect();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Upload garbage collection failed", e);
+        }
+    }
+
+    /** Runs one full pass; returns null if another pass is already running. */
+    public Report collect() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            long start = System.nanoTime();
+            Pass pass = new Pass(Instant.now());
+            if (Files.isDirectory(root)) {
+                BloomFilter live = mark();
+                sweepUploads(pass, live);
+                sweepQuarantine(pass);
+                sweepStaging(pass);
+            }
+            Report report = new Report(pass.scanned, pass.quarantined, pass.quarantinedBytes, pass.restored,
+                    pass.deleted, pass.reclaimedBytes, (System.nanoTime() - start) / 1_000_000);
+            lastReport = report;
+            logger.info("Upload GC scanned {} files, quarantined {} ({} bytes), restored {}, deleted {}, reclaimed {} bytes in {} ms",
+                    report.scannedFiles(), report.quarantinedFiles(), report.quarantinedBytes(), report.restoredFiles(),
+                    report.deletedFiles(), report.reclaimedBytes(), report.durationMillis());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Report lastReport() {
+        return lastReport;
+    }
+
+    private BloomFilter mark() {
+        BloomFilter live = new BloomFilter(recipeRepository.countWithImage() * 3 + BATCH_SIZE, FALSE_POSITIVE_RATE,
+                ThreadLocalRandom.current().nextLong());
+        long lastId = 0;
+        List<RecipeRepository.ImageRefs> batch = recipeRepository.findImageRefsAfter(lastId, Limit.of(BATCH_SIZE));
+        while (!batch.isEmpty()) {
+            for (RecipeRepository.ImageRefs refs : batch) {
+                putIfPresent(live, refs.getImageUrl());
+                putIfPresent(live, refs.getCardImageUrl());
+                putIfPresent(live, refs.getDetailImageUrl());
+                lastId = refs.getId();
+            }
+            batch = recipeRepository.findImageRefsAfter(lastId, Limit.of(BATCH_SIZE));
+        }
+        return live;
+    }
+
+    private void sweepUploads(Pass pass, BloomFilter live) throws IOException {
+        Instant youngest = pass.now.minus(gracePeriod);
+        List<Candidate> candidates = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return dir.equals(quarantine) || dir.equals(staging) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                pass.throttle();
+                pass.scanned++;
+                String key = keyOf(root, file);
+                // Recently written files may belong to a recipe that is still being saved
+                if (!attrs.isRegularFile() || keep.contains(key) || attrs.lastModifiedTime().toInstant().isAfter(youngest)
+                        || live.mightContain(URL_PREFIX + key)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                candidates.add(new Candidate(key, attrs.size()));
+                if (candidates.size() == BATCH_SIZE) {
+                    quarantineUnreferenced(pass, candidates);
+                    candidates.clear();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE; // Deleted while we were walking
+            }
+        });
+        quarantineUnreferenced(pass, candidates);
+    }
+
+    private void quarantineUnreferenced(Pass pass, List<Candidate> candidates) throws IOException {
+        Set<String> referenced = referencedKeys(candidates);
+        for (Candidate candidate : candidates) {
+            if (!referenced.contains(candidate.key()) && quarantine(candidate.key(), pass.now)) {
+                pass.quarantined++;
+                pass.quarantinedBytes += candidate.size();
+            }
+        }
+    }
+
+    // Under the key's lock, so an identical upload either still holds the blob here or stores it afresh after us
+    private boolean quarantine(String key, Instant now) throws IOException {
+        Lock lock = locks.forKey(key);
+        lock.lock();
+        try {
+            if (!blobRepository.findReferencedStorageKeys(List.of(key)).isEmpty()) {
+                return false;
+            }
+            // Drop the blob row first so a later identical upload re-stores the bytes instead of reusing them
+            blobRepository.deleteByStorageKey(key);
+            Path target = quarantine.resolve(key);
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(root.resolve(key), target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+            // The quarantine clock starts now, not when the file was uploaded
+            Files.setLastModifiedTime(target, FileTime.from(now));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sweepQuarantine(Pass pass) throws IOException {
+        if (!Files.isDirectory(quarantine)) {
+            return;
+        }
+        Instant expired = pass.now.minus(quarantinePeriod);
+        List<Candidate> candidates = new ArrayList<>();
+        Files.walkFileTree(quarantine, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                pass.throttle();
+                if (attrs.isRegularFile() && !attrs.lastModifiedTime().toInstant().isAfter(expired)) {
+                    candidates.add(new Candidate(keyOf(quarantine, file), attrs.size()));
+                    if (candidates.size() == BATCH_SIZE) {
+                        deleteOrRestore(pass, candidates);
+                        candidates.clear();
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                if (!dir.equals(quarantine)) {
+                    try {
+                        Files.deleteIfExists(dir);
+                    } catch (DirectoryNotEmptyException ignored) {
+                        // Still holds files in their quarantine period
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        deleteOrRestore(pass, candidates);
+    }
+
+    private void deleteOrRestore(Pass pass, List<Candidate> candidates) throws IOException {
+        Set<String> referenced = referencedKeys(candidates);
+        for (Candidate candidate : candidates) {
+            Path file = quarantine.resolve(candidate.key());
+            if (referenced.contains(candidate.key())) {
+                // A recipe points at it again (e.g. an identical upload raced the quarantine): put it back
+                Path original = root.resolve(candidate.key());
+                Files.createDirectories(original.getParent());
+                Files.move(file, original, StandardCopyOption.REPLACE_EXISTING);
+                pass.restored++;
+            } else if (Files.deleteIfExists(file)) {
+                pass.deleted++;
+                pass.reclaimedBytes += candidate.size();
+            }
+        }
+    }
+
+    // Temp files of uploads that never finished
+    private void sweepStaging(Pass pass) throws IOException {
+        if (!Files.isDirectory(staging)) {
+            return;
+        }
+        Instant youngest = pass.now.minus(gracePeriod);
+        try (var files = Files.newDirectoryStream(staging)) {
+            for (Path file : files) {
+                pass.throttle();
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attrs.isRegularFile() && attrs.lastModifiedTime().toInstant().isBefore(youngest) && Files.deleteIfExists(file)) {
+                    pass.deleted++;
+                    pass.reclaimedBytes += attrs.size();
+                }
+            }
+        }
+    }
+
+    private Set<String> referencedKeys(List<Candidate> candidates) {
+        Set<String> referenced = new HashSet<>();
+        if (candidates.isEmpty()) {
+            return referenced;
+        }
+        List<String> urls = candidates.stream().map(candidate -> URL_PREFIX + candidate.key()).toList();
+        for (RecipeRepository.ImageRefs refs : recipeRepository.findImageRefsByUrlIn(urls)) {
+            addKey(referenced, refs.getImageUrl());
+            addKey(referenced, refs.getCardImageUrl());
+            addKey(referenced, refs.getDetailImageUrl());
+        }
+        // A blob with references is live even before (or without) a recipe showing it, e.g. mid-save
+        referenced.addAll(blobRepository.findReferencedStorageKeys(candidates.stream().map(Candidate::key).toList()));
+        return referenced;
+    }
+
+    private static void putIfPresent(BloomFilter filter, String url) {
+        if (url != null) {
+            filter.put(url);
+        }
+    }
+
+    private static void addKey(Set<String> keys, String url) {
+        if (url != null && url.startsWith(URL_PREFIX)) {
+            keys.add(url.substring(URL_PREFIX.length()));
+        }
+    }
+
+    private static String keyOf(Path base, Path file) {
+        return base.relativize(file).toString().replace('\\', '/');
+    }
+
+    private record Candidate(String key, long size) {
+    }
+
+    // Counters for one pass, plus pacing so a pass never saturates the disk
+    private final class Pass {
+        private final Instant now;
+        private long nextSlot = System.nanoTime();
+        private long scanned;
+        private long quarantined;
+        private long quarantinedBytes;
+        private long restored;
+        private long deleted;
+        private long reclaimedBytes;
+
+        Pass(Instant now) {
+            this.now = now;
+        }
+
+        void throttle() {
+            if (nanosPerFile == 0) {
+                return;
+            }
+            long wait = nextSlot - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            nextSlot = Math.max(nextSlot, System.nanoTime()) + nanosPerFile;
+        }
+    }
+}
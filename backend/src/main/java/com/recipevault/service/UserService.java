@@ -1,45 +1,104 @@
 package com.recipevault.service;
 
+import java.time.Duration;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.security.core.userdetails.User;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.recipevault.model.UserInfo;
 import com.recipevault.repository.UserRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
 @Service
 public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+
+    // Principals for authenticated requests, so JwtAuthFilter does not hit the database every call
+    private final Cache<String, UserDetails> principalCache;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, PasswordHasher passwordHasher,
+                       @Value("${auth.principal-cache.max-size:10000}") long principalCacheSize,
+                       @Value("${auth.principal-cache.ttl:5m}") Duration principalCacheTtl,
+                       MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordHasher = passwordHasher;
+        this.principalCache = Caffeine.newBuilder()
+                .maximumSize(principalCacheSize)
+                .expireAfterWrite(principalCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principalCache, "auth.principals");
     }
 
-    public UserInfo registerUser(String username, String fullName, String password) {
+    /**
+     * @throws com.recipevault.exception.ServiceBusyException if password hashing is at capacity for this user or client
+     */
+    public UserInfo registerUser(String username, String fullName, String password, String clientAddress) {
         if (userRepository.findByUsername(username).isPresent()) {
             throw new RuntimeException("Username already exists");
         }
         UserInfo user = new UserInfo();
         user.setUsername(username);
         user.setFullName(fullName);
-        user.setPassword(passwordEncoder.encode(password)); // ✅ Hash password before saving
-        return userRepository.save(user);
+        user.setPassword(passwordHasher.encode(password, username, clientAddress)); // ✅ Hash password before saving
+        UserInfo savedUser = userRepository.save(user);
+        invalidatePrincipal(username);
+        return savedUser;
     }
 
-    public Optional<UserInfo> authenticateUser(String username, String password) {
+    /**
+     * @throws com.recipevault.exception.ServiceBusyException if password hashing is at capacity for this user or client
+     */
+    public Optional<UserInfo> authenticateUser(String username, String password, String clientAddress) {
         Optional<UserInfo> user = userRepository.findByUsername(username);
-        return user.filter(u -> passwordEncoder.matches(password, u.getPassword()));
+        if (user.isEmpty()) {
+            return Optional.empty();
+        }
+        PasswordHasher.Verification verification = passwordHasher.verify(password, user.get().getPassword(), username, clientAddress);
+        if (!verification.matches()) {
+            return Optional.empty();
+        }
+        // The hash cost was changed since this password was set
+        if (verification.upgradedHash() != null) {
+            user.get().setPassword(verification.upgradedHash());
+            userRepository.save(user.get());
+            invalidatePrincipal(username);
+        }
+        return user;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetails cached = principalCache.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        UserDetails userDetails = loadUserFromRepository(username);
+        principalCache.put(username, userDetails);
+        return userDetails;
+    }
+
+    /** Drops the cached principal; call whenever a user's row changes (password, removal, re-registration). */
+    public void invalidatePrincipal(String username) {
+        principalCache.invalidate(username);
+    }
+
+    public CacheStats principalCacheStats() {
+        return principalCache.stats();
+    }
+
+    private UserDetails loadUserFromRepository(String username) {
         Optional<UserInfo> user = userRepository.findByUsername(username);
         if (user.isEmpty()) {
             throw new UsernameNotFoundException("User not found: " + username);
@@ -0,0 +1,32 @@
+package com.recipevault.storage;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Striped locks over storage keys, taken around every change that can bring
+ * a blob into or out of existence: storing its first reference, releasing
+ * its last, and the orphan collector quarantining it. Without them a release
+ * deleting the file can interleave with an identical upload that has just
+ * found no blob and put the same key. A content-addressed key stands for
+ * exactly one hash, so this is a per-hash lock. It serialises the callers
+ * of one instance.
+ */
+@Component
+public class ImageLocks {
+    private static final int STRIPES = 64;
+
+    private final Lock[] stripes = new Lock[STRIPES];
+
+    public ImageLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock forKey(String key) {
+        return stripes[Math.floorMod(key.hashCode(), STRIPES)];
+    }
+}
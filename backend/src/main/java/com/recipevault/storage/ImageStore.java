@@ -0,0 +1,21 @@
+package com.recipevault.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Blob storage for recipe images. Keys are relative paths such as
+ * "ab/cd/abcd...ef.jpg"; callers pick them, the store only persists bytes.
+ */
+public interface ImageStore {
+
+    /** Moves or uploads a fully written local file under the key. Writing an existing key is a no-op. */
+    void put(String key, Path file, String contentType) throws IOException;
+
+    /** The stored blob, or null if there is none under the key. */
+    Resource get(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+}
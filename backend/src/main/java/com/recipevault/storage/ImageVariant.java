@@ -0,0 +1,33 @@
+package com.recipevault.storage;
+
+/** Resized JPEG copies generated for each uploaded image, stored next to the original. */
+public enum ImageVariant {
+    // Cards render at roughly 320 CSS px, so 640 covers 2x displays
+    CARD("card", 640, 0.80f),
+    DETAIL("detail", 1280, 0.85f);
+
+    private final String suffix;
+    private final int maxWidth;
+    private final float quality;
+
+    ImageVariant(String suffix, int maxWidth, float quality) {
+        this.suffix = suffix;
+        this.maxWidth = maxWidth;
+        this.quality = quality;
+    }
+
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    public float getQuality() {
+        return quality;
+    }
+
+    /** "ab/cd/abcd...ef.png" becomes "ab/cd/abcd...ef-card.jpg". */
+    public String keyFor(String originalKey) {
+        int dot = originalKey.lastIndexOf('.');
+        String base = dot > originalKey.lastIndexOf('/') ? originalKey.substring(0, dot) : originalKey;
+        return base + "-" + suffix + ".jpg";
+    }
+}
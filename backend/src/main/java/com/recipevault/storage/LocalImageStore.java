@@ -0,0 +1,63 @@
+package com.recipevault.storage;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+/** Stores blobs as files below the upload directory, one subdirectory level per key segment. */
+public class LocalImageStore implements ImageStore {
+    private final Path root;
+
+    public LocalImageStore(String uploadDir) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(String key, Path file, String contentType) throws IOException {
+        Path target = resolve(key);
+        if (Files.exists(target)) {
+            Files.deleteIfExists(file); // Same key means same content
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(file, target);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(file); // Lost a race with an identical upload
+        }
+    }
+
+    @Override
+    public Resource get(String key) {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? new FileSystemResource(path) : null;
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    // Keys stay below the root and out of its dot-directories, where staging files and quarantined blobs live
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        }
+        for (Path segment : root.relativize(path)) {
+            if (segment.toString().startsWith(".")) {
+                throw new IllegalArgumentException("Invalid image key: " + key);
+            }
+        }
+        return path;
+    }
+}
@@ -0,0 +1,110 @@
+package com.recipevault.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/** Stores blobs as objects in an S3 (or S3-compatible) bucket. */
+public class S3ImageStore implements ImageStore {
+    private final S3Client s3Client;
+    private final String bucket;
+
+    public S3ImageStore(S3Client s3Client, String bucket) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+    }
+
+    @Override
+    public void put(String key, Path file, String contentType) throws IOException {
+        try {
+            if (head(key) == null) {
+                s3Client.putObject(PutObjectRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .contentType(contentType)
+                                .build(),
+                        RequestBody.fromFile(file));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public Resource get(String key) {
+        HeadObjectResponse head = head(key);
+        return head == null ? null : new S3ObjectResource(key, head);
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(builder -> builder.bucket(bucket).key(key));
+    }
+
+    private HeadObjectResponse head(String key) {
+        try {
+            return s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    // Length and modification time come from the HEAD; the body is only fetched when read
+    private class S3ObjectResource extends AbstractResource {
+        private final String key;
+        private final HeadObjectResponse head;
+
+        S3ObjectResource(String key, HeadObjectResponse head) {
+            this.key = key;
+            this.head = head;
+        }
+
+        @Override
+        public String getDescription() {
+            return "s3://" + bucket + "/" + key;
+        }
+
+        @Override
+        public String getFilename() {
+            return key.substring(key.lastIndexOf('/') + 1);
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return s3Client.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build());
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return head.contentLength();
+        }
+
+        @Override
+        public long lastModified() {
+            return head.lastModified() == null ? 0 : head.lastModified().toEpochMilli();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.recipevault.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-size Bloom filter over strings. Answers "definitely absent" or
+ * "possibly present" in a few bits per element, which lets a caller test
+ * membership in a set far too large to hold as a HashSet.
+ */
+public class BloomFilter {
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long seed;
+
+    /**
+     * @param expectedElements how many distinct elements will be added
+     * @param falsePositiveRate target probability that an absent element is reported present
+     * @param seed varies which elements collide, so repeated runs do not share false positives
+     */
+    public BloomFilter(long expectedElements, double falsePositiveRate, long seed) {
+        long n = Math.max(1, expectedElements);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, m);
+        this.bits = new long[Math.toIntExact((bitCount + 63) / 64)];
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.seed = seed;
+    }
+
+    public void put(String value) {
+        long h1 = hash(value, seed);
+        long h2 = hash(value, ~seed) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash(value, seed);
+        long h2 = hash(value, ~seed) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long sizeInBytes() {
+        return bits.length * 8L;
+    }
+
+    // FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 64-bit mixer
+    private static long hash(String value, long seed) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
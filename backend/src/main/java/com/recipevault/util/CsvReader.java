@@ -0,0 +1,119 @@
+package com.recipevault.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: comma separated, fields optionally quoted with
+ * doubled quotes as escapes, and quoted fields may span lines. Only the
+ * current record is held in memory, and records longer than a fixed bound are
+ * skipped with a {@link MalformedRecordException} rather than buffered.
+ */
+public class CsvReader implements Closeable {
+    private final Reader reader;
+    private final int maxRecordChars;
+    private long lineNumber = 1;
+    private long recordLine;
+    private boolean started;
+
+    public CsvReader(Reader reader, int maxRecordChars) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /** A record that could not be read; the reader is already past it and can carry on. */
+    public static class MalformedRecordException extends IOException {
+        private final long line;
+
+        public MalformedRecordException(String message, long line) {
+            super(message);
+            this.line = line;
+        }
+
+        public long getLine() {
+            return line;
+        }
+    }
+
+    /** The fields of the next record, or null at the end of the input. */
+    public List<String> next() throws IOException {
+        int c = reader.read();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') {
+                c = reader.read(); // Byte order mark left by spreadsheet exports
+            }
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int length = 0;
+        boolean quoted = false;
+        boolean fieldStart = true;
+        while (true) {
+            if (c == -1) {
+                if (quoted) {
+                    throw new MalformedRecordException("Unterminated quoted field", recordLine);
+                }
+                fields.add(field.toString());
+                break;
+            }
+            if (c == '\n') {
+                lineNumber++;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int following = reader.read();
+                    if (following != '"') {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+                c = reader.read();
+                continue;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+                c = reader.read();
+                continue;
+            } else if (c == '\n') {
+                fields.add(field.toString());
+                break;
+            } else if (c == '\r') {
+                c = reader.read(); // CRLF line endings
+                continue;
+            }
+            fieldStart = false;
+            if (++length <= maxRecordChars) {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        if (length > maxRecordChars) {
+            throw new MalformedRecordException("Record is longer than " + maxRecordChars + " characters", recordLine);
+        }
+        return fields;
+    }
+
+    /** The line the last record returned by {@link #next()} started on. */
+    public long line() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,92 @@
+package com.recipevault.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Reduces a free-text ingredient line to a canonical key, so "2 Eggs",
+ * "egg" and "EGGS" all become "egg". Quantities and common units are dropped
+ * and the remaining words are stemmed by {@link TextAnalyzer}.
+ */
+public final class IngredientNormalizer {
+    private static final Set<String> UNITS = Set.of(
+            "cup", "tbsp", "tablespoon", "tsp", "teaspoon", "gram", "kg", "mg", "ml", "litr", "liter",
+            "oz", "ounc", "lb", "pound", "pinch", "dash", "handful", "clov", "piec", "slic", "can", "pack", "bunch");
+
+    private IngredientNormalizer() {
+    }
+
+    public static String normalize(String ingredientName) {
+        List<String> words = new ArrayList<>();
+        for (String term : TextAnalyzer.analyze(ingredientName)) {
+            if (!isQuantity(term) && !UNITS.contains(term)) {
+                words.add(term);
+            }
+        }
+        return String.join(" ", words);
+    }
+
+    /** An ingredient line split into what was measured and what it was measured of. */
+    public record ParsedLine(String quantity, String name, String key) {
+    }
+
+    /**
+     * Splits "2 cups of plain flour" into the quantity "2 cups of" and the
+     * ingredient "plain flour", keyed "plain flour". The quantity is kept as
+     * typed and is null when the line has none; a line that is nothing but a
+     * quantity is taken whole as the name.
+     */
+    public static ParsedLine parse(String line) {
+        String trimmed = line.trim();
+        int nameStart = 0;
+        int i = 0;
+        while (i < trimmed.length()) {
+            int end = i;
+            while (end < trimmed.length() && !Character.isWhitespace(trimmed.charAt(end))) {
+                end++;
+            }
+            if (!isMeasure(trimmed.substring(i, end))) {
+                break;
+            }
+            i = end;
+            while (i < trimmed.length() && Character.isWhitespace(trimmed.charAt(i))) {
+                i++;
+            }
+            nameStart = i;
+        }
+        if (nameStart == trimmed.length()) {
+            nameStart = 0;
+        }
+        String name = trimmed.substring(nameStart);
+        String key = normalize(name);
+        return new ParsedLine(nameStart == 0 ? null : trimmed.substring(0, nameStart).trim(), name,
+                key.isEmpty() ? name.toLowerCase(Locale.ROOT) : key);
+    }
+
+    /** The last word of a key, e.g. "egg" for "kampung egg"; used as a looser match. */
+    public static String head(String key) {
+        int space = key.lastIndexOf(' ');
+        return space < 0 ? key : key.substring(space + 1);
+    }
+
+    // Numbers, units and words that analyze to nothing ("of", "a", "½")
+    private static boolean isMeasure(String token) {
+        for (String term : TextAnalyzer.analyze(token)) {
+            if (!isQuantity(term) && !UNITS.contains(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isQuantity(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isDigit(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
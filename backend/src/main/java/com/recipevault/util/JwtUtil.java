@@ -1,28 +1,80 @@
 package com.recipevault.util;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Component
 public class JwtUtil {
-    @Value("${jwt.secret}")
-    private String secretKey;
+    private static final int VERIFIED_CACHE_SIZE = 10_000;
+
+    private final long expiration;
+
+    // Key derivation and parser construction are done once, not per call
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    // Recently verified tokens, each kept only until its own exp claim
+    private final Cache<String, Claims> verifiedTokens;
+
+    // One timer per outcome: cached (no crypto), verified (signature checked) or rejected
+    private final Timer cachedTimer;
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
 
-    @Value("${jwt.expiration}")
-    private long expiration;
+    public JwtUtil(@Value("${jwt.secret}") String secretKey, @Value("${jwt.expiration}") long expiration, MeterRegistry meterRegistry) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(VERIFIED_CACHE_SIZE)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+        this.cachedTimer = verifyTimer(meterRegistry, "cached");
+        this.verifiedTimer = verifyTimer(meterRegistry, "verified");
+        this.rejectedTimer = verifyTimer(meterRegistry, "rejected");
     }
 
     public String generateToken(String username) {
@@ -30,7 +82,7 @@ public class JwtUtil {
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -43,16 +95,154 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(parseClaims(token));
+    }
+
+    /** Verifies signature and expiry on every call; throws JwtException when invalid. */
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Verified claims for the token, or null if it is malformed, forged or
+     * expired. Tokens seen recently are answered from cache without crypto.
+     * The claims are read-only: setters and map writes throw.
+     */
+    public Claims verify(String token) {
+        long start = System.nanoTime();
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            boolean live = cached.getExpiration().after(new Date());
+            (live ? cachedTimer : rejectedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return live ? cached : null;
+        }
+
+        Claims claims;
+        try {
+            claims = parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return null;
+        }
+        // Every request with this token gets the same instance, so none of them may change it
+        claims = new ReadOnlyClaims(claims);
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(token, claims);
+        }
+        verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return claims;
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !extractExpiration(token).before(new Date());
+        Claims claims = verify(token);
+        return claims != null && claims.getSubject().equals(userDetails.getUsername());
+    }
+
+    /** A view of verified claims that refuses every change; dates are handed out as copies. */
+    private static final class ReadOnlyClaims extends AbstractMap<String, Object> implements Claims {
+        private final Claims claims;
+        private final Map<String, Object> view;
+
+        ReadOnlyClaims(Claims claims) {
+            this.claims = claims;
+            this.view = Collections.unmodifiableMap(claims);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return view.entrySet();
+        }
+
+        @Override
+        public Object get(Object key) {
+            return view.get(key);
+        }
+
+        @Override
+        public <T> T get(String claimName, Class<T> requiredType) {
+            T value = claims.get(claimName, requiredType);
+            return value instanceof Date date ? requiredType.cast(new Date(date.getTime())) : value;
+        }
+
+        @Override
+        public String getIssuer() {
+            return claims.getIssuer();
+        }
+
+        @Override
+        public String getSubject() {
+            return claims.getSubject();
+        }
+
+        @Override
+        public String getAudience() {
+            return claims.getAudience();
+        }
+
+        @Override
+        public Date getExpiration() {
+            return copy(claims.getExpiration());
+        }
+
+        @Override
+        public Date getNotBefore() {
+            return copy(claims.getNotBefore());
+        }
+
+        @Override
+        public Date getIssuedAt() {
+            return copy(claims.getIssuedAt());
+        }
+
+        @Override
+        public String getId() {
+            return claims.getId();
+        }
+
+        @Override
+        public Claims setIssuer(String iss) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Claims setSubject(String sub) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Claims setAudience(String aud) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Claims setExpiration(Date exp) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Claims setNotBefore(Date nbf) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Claims setIssuedAt(Date iat) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Claims setId(String jti) {
+            throw new UnsupportedOperationException();
+        }
+
+        private static Date copy(Date date) {
+            return date == null ? null : new Date(date.getTime());
+        }
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("auth.jwt.verify")
+                .description("Bearer token verification")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 }
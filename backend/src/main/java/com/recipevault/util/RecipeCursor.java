@@ -0,0 +1,46 @@
+package com.recipevault.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.recipevault.model.Recipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Opaque keyset cursor pointing at the last recipe of a page.
+ * Encoded as URL-safe base64 of "createdDate|id".
+ */
+@Getter
+@AllArgsConstructor
+public class RecipeCursor {
+    private final LocalDateTime createdDate;
+    private final Long id;
+
+    public static RecipeCursor of(Recipe recipe) {
+        return new RecipeCursor(recipe.getCreatedDate(), recipe.getId());
+    }
+
+    public String encode() {
+        String raw = createdDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RecipeCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new RecipeCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
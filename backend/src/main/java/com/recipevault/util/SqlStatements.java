@@ -0,0 +1,123 @@
+package com.recipevault.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, and
+ * the time spent executing them, between {@link #start()} and
+ * {@link #stop()}. Statements on threads with no recording pass straight
+ * through. Register the inspector as Hibernate's statement inspector and
+ * {@link Timing} as its session events listener.
+ */
+public class SqlStatements implements StatementInspector {
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    // IN lists with one placeholder per element are the same statement whatever their length
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public static Recording start() {
+        Recording recording = new Recording();
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Recording recording = CURRENT.get();
+        if (recording != null) {
+            recording.prepared(sql);
+        }
+        return sql;
+    }
+
+    /** Statement text with whitespace collapsed and placeholder lists folded to {@code (?, ...)}. */
+    public static String shape(String sql) {
+        String collapsed = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return PLACEHOLDER_LIST.matcher(collapsed).replaceAll("(?, ...)");
+    }
+
+    /** One per session; attributes each execution to the statement most recently prepared on the thread. */
+    public static class Timing extends BaseSessionEventListener {
+        private long startedAt;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            startedAt = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            executed();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            startedAt = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            executed();
+        }
+
+        private void executed() {
+            Recording recording = CURRENT.get();
+            if (recording != null) {
+                recording.executed(System.nanoTime() - startedAt);
+            }
+        }
+    }
+
+    public record Shape(String sql, int count, long nanos) {
+    }
+
+    /** What one unit of work (normally an HTTP request) sent to the database. */
+    public static class Recording {
+        private final Map<String, long[]> shapes = new LinkedHashMap<>(); // shape -> {count, nanos}
+        private long[] last;
+        private int statements;
+        private long nanos;
+
+        void prepared(String sql) {
+            statements++;
+            last = shapes.computeIfAbsent(shape(sql), key -> new long[2]);
+            last[0]++;
+        }
+
+        void executed(long elapsed) {
+            nanos += elapsed;
+            if (last != null) {
+                last[1] += elapsed;
+            }
+        }
+
+        public int statements() {
+            return statements;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        /** Distinct statements, most frequent first. */
+        public List<Shape> shapes() {
+            List<Shape> result = new ArrayList<>(shapes.size());
+            shapes.forEach((sql, totals) -> result.add(new Shape(sql, (int) totals[0], totals[1])));
+            result.sort(Comparator.comparingInt(Shape::count).reversed().thenComparing(Comparator.comparingLong(Shape::nanos).reversed()));
+            return result;
+        }
+    }
+}
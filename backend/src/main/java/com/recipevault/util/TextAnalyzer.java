@@ -0,0 +1,111 @@
+package com.recipevault.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns free text into index terms: strips accents, lowercases, splits on
+ * anything that is not a letter or digit, drops stop words and applies a
+ * light English stemmer so "eggs", "egg" and "egged" share a term.
+ */
+public final class TextAnalyzer {
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "of", "on", "or", "the", "then", "to", "until", "with", "your", "some");
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addTerm(terms, folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        if (token.length() < 2 || STOP_WORDS.contains(token)) {
+            return;
+        }
+        terms.add(stem(token));
+    }
+
+    /**
+     * Suffix stripping modelled on steps 1a/1b/5a of the Porter stemmer; enough
+     * to fold plurals and -ed/-ing verb forms common in recipe text.
+     */
+    static String stem(String word) {
+        if (word.length() <= 3 || !Character.isLetter(word.charAt(word.length() - 1))) {
+            return word;
+        }
+        String w = word;
+
+        // Step 1a: plurals
+        if (w.endsWith("sses")) {
+            w = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("ies")) {
+            w = w.substring(0, w.length() - 3) + "y";
+        } else if (w.endsWith("oes")) {
+            w = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("s") && !w.endsWith("ss") && !w.endsWith("us")) {
+            w = w.substring(0, w.length() - 1);
+        }
+
+        // Step 1b: past tense and gerunds, only when a vowel remains in the stem
+        String stripped = null;
+        if (w.endsWith("eed")) {
+            stripped = w.substring(0, w.length() - 1);
+        } else if (w.endsWith("ed") && hasVowel(w, w.length() - 2)) {
+            stripped = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("ing") && hasVowel(w, w.length() - 3) && w.length() > 5) {
+            stripped = w.substring(0, w.length() - 3);
+        }
+        if (stripped != null && stripped.length() >= 3) {
+            w = undouble(stripped);
+        }
+
+        // Final e is dropped so "slice", "sliced" and "slices" meet at "slic"
+        if (w.endsWith("e") && !w.endsWith("ee") && w.length() > 3) {
+            w = w.substring(0, w.length() - 1);
+        }
+        return w;
+    }
+
+    private static boolean hasVowel(String word, int end) {
+        for (int i = 0; i < end; i++) {
+            if ("aeiou".indexOf(word.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "chopp" -> "chop", but keep ll/ss/zz as Porter does, and three-letter stems such as "egg" and "add"
+    // whole so "egged" and "added" still meet their root
+    private static String undouble(String w) {
+        int n = w.length();
+        char last = w.charAt(n - 1);
+        if (n > 3 && last == w.charAt(n - 2) && "lsz".indexOf(last) < 0 && "aeiou".indexOf(last) < 0) {
+            return w.substring(0, n - 1);
+        }
+        return w;
+    }
+}
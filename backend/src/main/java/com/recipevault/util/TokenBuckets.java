@@ -0,0 +1,85 @@
+package com.recipevault.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Token buckets for many keys, one {@code long} each. A bucket is kept as
+ * the time at which it would be full again (the generic cell rate
+ * algorithm), so taking a token is a single compare-and-set with no lock
+ * and no refill bookkeeping. Buckets live in a size-bounded cache and are
+ * dropped once idle for longer than any of them takes to refill, which is
+ * indistinguishable from keeping them full.
+ */
+public class TokenBuckets {
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier nanoClock;
+
+    /** Permits per minute with bursts of up to {@code burst} at once. */
+    public record Rate(long intervalNanos, long toleranceNanos) {
+        public static Rate perMinute(int permits, int burst) {
+            long interval = Duration.ofMinutes(1).toNanos() / Math.max(1, permits);
+            return new Rate(interval, interval * (Math.max(1, burst) - 1));
+        }
+
+        /** The same policy for a key shared by several users (about factor times the rate and burst). */
+        public Rate times(int factor) {
+            return new Rate(intervalNanos / factor, toleranceNanos);
+        }
+
+        /** How long an empty bucket takes to fill up again. */
+        public Duration refill() {
+            return Duration.ofNanos(intervalNanos + toleranceNanos);
+        }
+    }
+
+    /**
+     * @param maxKeys bound on the number of buckets held; the least recently used go first
+     * @param idleExpiry at least the longest {@link Rate#refill()} in use
+     */
+    public TokenBuckets(long maxKeys, Duration idleExpiry) {
+        this(maxKeys, idleExpiry, System::nanoTime);
+    }
+
+    TokenBuckets(long maxKeys, Duration idleExpiry, LongSupplier nanoClock) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpiry)
+                .ticker(nanoClock::getAsLong)
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes a token from the key's bucket.
+     *
+     * @return 0 if it was taken, otherwise the nanoseconds until one will be available
+     */
+    public long tryAcquire(String key, Rate rate) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + rate.intervalNanos();
+            long wait = next - now - rate.intervalNanos() - rate.toleranceNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    void cleanUp() {
+        buckets.cleanUp();
+    }
+}
@@ -0,0 +1,7 @@
+-- Recipe.ingredientCount: the number of ingredient lines, kept on the recipe so listings can filter on it in SQL.
+
+ALTER TABLE recipes ADD COLUMN ingredient_count INTEGER NOT NULL DEFAULT 0;
+
+-- Existing recipes take their count from the ingredient lines they already have. This is the legacy
+-- ingredients table, as the dictionary tables that replace it only arrive in V6 and V7.
+UPDATE recipes SET ingredient_count = (SELECT COUNT(*) FROM ingredients WHERE ingredients.recipe_id = recipes.id);
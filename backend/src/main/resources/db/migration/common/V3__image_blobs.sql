@@ -0,0 +1,12 @@
+-- Content-addressed image storage: one row per distinct upload, shared by every recipe that uploaded the same bytes.
+
+CREATE TABLE image_blobs (
+    hash VARCHAR(64) NOT NULL,
+    storage_key VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL,
+    created_date DATETIME(6),
+    PRIMARY KEY (hash),
+    CONSTRAINT UKs7oci17b5yhns3qal8jexhey0 UNIQUE (storage_key)
+);
@@ -0,0 +1,4 @@
+-- Resized copies of a recipe's image, filled in by ImageVariantService once generated.
+
+ALTER TABLE recipes ADD COLUMN card_image_url VARCHAR(255);
+ALTER TABLE recipes ADD COLUMN detail_image_url VARCHAR(255);
@@ -0,0 +1,22 @@
+-- The ingredient dictionary, and recipes' ingredient lines as links into it with the quantity and name they were
+-- written with; the dictionary entry is what lines are matched on, the name what the recipe shows. V7 (LegacyIngredientMigration) moves the lines of the old ingredients table over and drops it.
+
+CREATE TABLE canonical_ingredients (
+    id BIGINT NOT NULL,
+    normalized_name VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UKah3asy6miptmgt5m64kjip0g7 UNIQUE (normalized_name)
+);
+
+CREATE TABLE recipe_ingredients (
+    id BIGINT NOT NULL,
+    recipe_id BIGINT NOT NULL,
+    ingredient_id BIGINT NOT NULL,
+    quantity VARCHAR(255),
+    name VARCHAR(255) NOT NULL,
+    position INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FKcqlw8sor5ut10xsuj3jnttkc FOREIGN KEY (recipe_id) REFERENCES recipes (id),
+    CONSTRAINT FK3mfhcgp4r0psoih2hvaba7hj2 FOREIGN KEY (ingredient_id) REFERENCES canonical_ingredients (id)
+);
@@ -0,0 +1,16 @@
+-- Indexes for the listing and lookup queries (see QueryPlanTest). Each recipes index ends in (created_date, id),
+-- the newest-first order and keyset cursor of RecipeRepository.findPage, so a page is read straight off the index
+-- and stops after its LIMIT rather than sorting every match. The user_id and recipe_id indexes also take over the
+-- foreign keys, and InnoDB drops the single-column indexes it had made for them.
+
+-- GET /recipes
+CREATE INDEX idx_recipes_created ON recipes (created_date, id);
+
+-- GET /recipes/my (findPageByUser)
+CREATE INDEX idx_recipes_user_created ON recipes (user_id, created_date, id);
+
+-- GET /recipes?difficulty=...
+CREATE INDEX idx_recipes_difficulty_created ON recipes (difficulty, created_date, id);
+
+-- Recipe.ingredients in order, for one recipe or a batch of them
+CREATE INDEX idx_recipe_ingredients_recipe ON recipe_ingredients (recipe_id, position);
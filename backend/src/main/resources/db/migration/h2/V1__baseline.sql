@@ -0,0 +1,30 @@
+-- The same baseline schema as db/migration/mysql, for the in-memory H2 used by tests and the load test.
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    full_name VARCHAR(255),
+    password VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UKr43af9ap4edm43mmtq01oddj6 UNIQUE (username)
+);
+
+CREATE TABLE recipes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_date TIMESTAMP(6),
+    difficulty ENUM ('EASY','HARD','MEDIUM') NOT NULL,
+    image_url VARCHAR(255),
+    instructions TEXT,
+    title VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FKlc3x6yty3xsupx80hqbj9ayos FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE ingredients (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    ingredient_name VARCHAR(255) NOT NULL,
+    recipe_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FK7p08vcn6wf7fd6qp79yy2jrwg FOREIGN KEY (recipe_id) REFERENCES recipes (id)
+);
@@ -0,0 +1,6 @@
+-- Pooled sequence ids, as in db/migration/mysql, but as real sequences with the increments of the entities'
+-- allocation sizes. H2 databases are in-memory and always start empty, so every sequence starts at 1.
+
+CREATE SEQUENCE recipes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE ingredients_seq START WITH 1 INCREMENT BY 200;
+CREATE SEQUENCE canonical_ingredients_seq START WITH 1 INCREMENT BY 50;
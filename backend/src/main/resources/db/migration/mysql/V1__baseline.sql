@@ -0,0 +1,33 @@
+-- The schema as the first release's Hibernate schema update created it: users, their recipes and each recipe's
+-- free-text ingredient lines. Databases created by that release already have it and are baselined at version 1;
+-- the migrations after this one bring them, and new databases, up to date. Constraint names are the ones
+-- Hibernate generated, so both kinds of database end up the same.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    full_name VARCHAR(255),
+    password VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UKr43af9ap4edm43mmtq01oddj6 UNIQUE (username)
+) ENGINE=InnoDB;
+
+CREATE TABLE recipes (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_date DATETIME(6),
+    difficulty ENUM ('EASY','HARD','MEDIUM') NOT NULL,
+    image_url VARCHAR(255),
+    instructions TEXT,
+    title VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FKlc3x6yty3xsupx80hqbj9ayos FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE ingredients (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    ingredient_name VARCHAR(255) NOT NULL,
+    recipe_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FK7p08vcn6wf7fd6qp79yy2jrwg FOREIGN KEY (recipe_id) REFERENCES recipes (id)
+) ENGINE=InnoDB;
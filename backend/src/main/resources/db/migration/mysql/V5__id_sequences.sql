@@ -0,0 +1,12 @@
+-- Recipes and ingredient rows take pooled sequence ids instead of AUTO_INCREMENT, so Hibernate can batch their
+-- inserts. MySQL has no sequences, so Hibernate keeps each in a one-row table holding the next free id (pooled-lo).
+-- recipes_seq starts past the ids AUTO_INCREMENT already gave out; the ingredient sequences are moved past the
+-- rows LegacyIngredientMigration (V7) writes. The AUTO_INCREMENT attribute is left on recipes.id, unused.
+
+CREATE TABLE recipes_seq (next_val BIGINT) ENGINE=InnoDB;
+CREATE TABLE ingredients_seq (next_val BIGINT) ENGINE=InnoDB;
+CREATE TABLE canonical_ingredients_seq (next_val BIGINT) ENGINE=InnoDB;
+
+INSERT INTO recipes_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM recipes;
+INSERT INTO ingredients_seq (next_val) VALUES (1);
+INSERT INTO canonical_ingredients_seq (next_val) VALUES (1);
@@ -0,0 +1,123 @@
+package com.recipevault.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReplicaRoutingDataSourceTest {
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final AtomicReference<String> user = new AtomicReference<>();
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica1 = mock(DataSource.class);
+    private final DataSource replica2 = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replica1Connection = mock(Connection.class, Answers.RETURNS_DEEP_STUBS);
+    private final Connection replica2Connection = mock(Connection.class, Answers.RETURNS_DEEP_STUBS);
+
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+        when(replica1Connection.isValid(2)).thenReturn(true);
+        when(replica2Connection.isValid(2)).thenReturn(true);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        routing = new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(2), Duration.ofSeconds(10),
+                user::get, new SimpleMeterRegistry(), clock::get);
+    }
+
+    @Test
+    void onlyReplicaTransactionsUseReplicasInTurn() throws SQLException {
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        routing.requestReplica(false);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        assertThat(replicaRead()).isSameAs(replica1Connection);
+        assertThat(replicaRead()).isSameAs(replica2Connection);
+        assertThat(replicaRead()).isSameAs(replica1Connection);
+    }
+
+    @Test
+    void aWriterReadsFromThePrimaryForTheReadYourWritesWindow() throws SQLException {
+        user.set("gordon");
+        routing.recordWrite();
+
+        // Right after any write nobody uses a replica, since it may not have the write yet
+        user.set("jamie");
+        assertThat(replicaRead()).isSameAs(primaryConnection);
+
+        advance(3);
+        assertThat(replicaRead()).isNotSameAs(primaryConnection);
+        user.set("gordon");
+        assertThat(replicaRead()).isSameAs(primaryConnection);
+
+        advance(8);
+        assertThat(replicaRead()).isNotSameAs(primaryConnection);
+    }
+
+    @Test
+    void aReplicaThatFailsIsSkippedUntilItsHealthCheckPasses() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLTransientConnectionException("replica-1 - Connection is not available"));
+
+        // The failed read falls back to the primary; after that replica-1 is out of rotation
+        assertThat(replicaRead()).isSameAs(primaryConnection);
+        assertThat(replicaRead()).isSameAs(replica2Connection);
+        assertThat(replicaRead()).isSameAs(replica2Connection);
+
+        routing.checkReplicas();
+        assertThat(replicaRead()).isSameAs(replica2Connection);
+
+        doReturn(replica1Connection).when(replica1).getConnection();
+        routing.checkReplicas();
+        assertThat(replicaRead()).isSameAs(replica1Connection);
+    }
+
+    @Test
+    void withEveryReplicaDownReadsUseThePrimary() throws SQLException {
+        when(replica1Connection.isValid(2)).thenReturn(false);
+        when(replica2.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        routing.checkReplicas();
+
+        assertThat(replicaRead()).isSameAs(primaryConnection);
+        assertThat(replicaRead()).isSameAs(primaryConnection);
+    }
+
+    private Connection replicaRead() throws SQLException {
+        routing.requestReplica(true);
+        try {
+            return routing.getConnection();
+        } finally {
+            routing.clearRequest();
+        }
+    }
+
+    private void advance(int seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
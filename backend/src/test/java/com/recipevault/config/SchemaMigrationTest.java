@@ -0,0 +1,61 @@
+package com.recipevault.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+/**
+ * Upgrades a database that has the V1 schema and data in it, as one created
+ * by the first release would, to the latest migration.
+ */
+class SchemaMigrationTest {
+    private SimpleDriverDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:migration-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void movesLegacyIngredientLinesIntoTheDictionaryAndDropsTheTable() {
+        migrate("1");
+        jdbcTemplate.update("INSERT INTO users (id, username, password) VALUES (1, 'cook', 'hash')");
+        jdbcTemplate.update("INSERT INTO recipes (id, title, difficulty, user_id) VALUES (10, 'Pancakes', 'EASY', 1), (11, 'Omelette', 'EASY', 1)");
+        jdbcTemplate.update("INSERT INTO ingredients (id, ingredient_name, recipe_id) VALUES "
+                + "(1, '2 cups flour', 10), (2, 'Eggs', 10), (3, 'milk', 10), (4, '3 eggs', 11)");
+
+        migrate("latest");
+
+        assertThat(jdbcTemplate.queryForList("SELECT CONCAT(COALESCE(ri.quantity, '-'), '|', ri.name, '|', ci.normalized_name) "
+                + "FROM recipe_ingredients ri JOIN canonical_ingredients ci ON ci.id = ri.ingredient_id ORDER BY ri.recipe_id, ri.position",
+                String.class))
+                .containsExactly("2 cups|flour|flour", "-|Eggs|egg", "-|milk|milk", "3|eggs|egg");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM canonical_ingredients", Integer.class)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT ingredient_count FROM recipes ORDER BY id", Integer.class))
+                .containsExactly(3, 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'ingredients'",
+                Integer.class)).isZero();
+        // New rows are numbered after the migrated ones
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR ingredients_seq", Long.class)).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR canonical_ingredients_seq", Long.class)).isEqualTo(4);
+    }
+
+    private void migrate(String target) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .javaMigrations(new LegacyIngredientMigration())
+                .target(target)
+                .load()
+                .migrate();
+    }
+}
@@ -0,0 +1,49 @@
+package com.recipevault.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadPinningMonitorTest {
+    private final Object monitor = new Object();
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @BeforeEach
+    void setUp() {
+        pinningMonitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10));
+        pinningMonitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pinningMonitor.stop();
+    }
+
+    @Test
+    void countsAVirtualThreadThatBlocksInsideSynchronized() throws Exception {
+        Thread.ofVirtual().start(() -> {
+            synchronized (monitor) {
+                sleep(50);
+            }
+        }).join();
+
+        // JFR streams events in roughly one-second chunks
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (pinningMonitor.pinnedCount() == 0 && System.nanoTime() < deadline) {
+            sleep(100);
+        }
+        assertThat(pinningMonitor.pinnedCount()).isPositive();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.recipevault.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.recipevault.util.JwtUtil;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ImageControllerTest {
+    private static final String HASH = "ab".repeat(32);
+    private static final String KEY = "ab/ab/" + HASH + ".jpg";
+    private static final byte[] BYTES = "0123456789".getBytes();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private JwtUtil jwtUtil;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = Paths.get(uploadDir, KEY);
+        Files.createDirectories(file.getParent());
+        Files.write(file, BYTES);
+        Files.write(Paths.get(uploadDir, "legacy-photo.jpg"), BYTES);
+    }
+
+    @Test
+    void contentAddressedImagesAreImmutableWithTheHashAsETag() throws Exception {
+        mockMvc.perform(get("/uploads/" + KEY))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(content().bytes(BYTES));
+    }
+
+    @Test
+    void matchingETagIsAnsweredWithNotModified() throws Exception {
+        byte[] body = mockMvc.perform(get("/uploads/" + KEY).header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(body).isEmpty();
+    }
+
+    @Test
+    void servesSingleByteRanges() throws Exception {
+        mockMvc.perform(get("/uploads/" + KEY).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().bytes("2345".getBytes()));
+
+        mockMvc.perform(get("/uploads/" + KEY).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes("789".getBytes()));
+    }
+
+    @Test
+    void staleIfRangeReturnsTheWholeImage() throws Exception {
+        mockMvc.perform(get("/uploads/" + KEY)
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"something-else\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(BYTES));
+    }
+
+    @Test
+    void unsatisfiableRangeIsRejected() throws Exception {
+        mockMvc.perform(get("/uploads/" + KEY).header(HttpHeaders.RANGE, "bytes=50-60"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void malformedRangeIsIgnored() throws Exception {
+        mockMvc.perform(get("/uploads/" + KEY).header(HttpHeaders.RANGE, "bytes=five-six"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(BYTES));
+        mockMvc.perform(get("/uploads/" + KEY).header(HttpHeaders.RANGE, "items=0-5"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(BYTES));
+    }
+
+    @Test
+    void legacyUploadsAreRevalidated() throws Exception {
+        mockMvc.perform(get("/uploads/legacy-photo.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void missingAndEscapingKeysAreRejected() throws Exception {
+        mockMvc.perform(get("/uploads/ab/ab/missing.jpg")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/uploads/..%2F..%2Fpom.xml")).andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void stagingAndQuarantinedFilesAreNotServed() throws Exception {
+        Path quarantined = Paths.get(uploadDir, ".quarantine", KEY);
+        Files.createDirectories(quarantined.getParent());
+        Files.write(quarantined, BYTES);
+        Path staged = Paths.get(uploadDir, ".staging", "upload-1.tmp");
+        Files.createDirectories(staged.getParent());
+        Files.write(staged, BYTES);
+
+        mockMvc.perform(get("/uploads/.quarantine/" + KEY)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/uploads/.staging/upload-1.tmp")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/uploads/ab/..%2F..%2F.quarantine/" + KEY)).andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void imageRequestsSkipTokenVerification() throws Exception {
+        mockMvc.perform(get("/uploads/" + KEY).header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("gordon")))
+                .andExpect(status().isOk());
+
+        verify(jwtUtil, never()).verify(anyString());
+    }
+}
@@ -0,0 +1,52 @@
+package com.recipevault.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.util.JwtUtil;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void prometheusScrapeNeedsNoTokenAndCarriesTheAppMeters() throws Exception {
+        if (userRepository.findByUsername("metrics").isEmpty()) {
+            userRepository.save(new UserInfo(null, "metrics", "Metrics", "hash", null));
+        }
+        mockMvc.perform(get("/recipes").header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("metrics")))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Timers are tagged with the URI template, never the raw path
+        assertThat(scrape).contains("http_server_requests_seconds_count{", "uri=\"/recipes\"");
+        assertThat(scrape).contains("auth_jwt_verify_seconds_count{", "result=\"verified\"");
+        assertThat(scrape).contains("hibernate_", "hikaricp_connections_active", "images_variants_queue");
+    }
+}
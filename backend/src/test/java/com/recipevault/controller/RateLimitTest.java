@@ -0,0 +1,92 @@
+package com.recipevault.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.util.JwtUtil;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Two uploads per user at once; MockMvc requests all share one address, whose buckets are twice as large
+@SpringBootTest(properties = {
+        "rate-limit.enabled=true",
+        "rate-limit.upload.per-minute=1",
+        "rate-limit.upload.burst=2",
+        "rate-limit.client-factor=2"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        userRepository.save(new UserInfo(null, "gordon", "Gordon Ramsay", "hash", null));
+        userRepository.save(new UserInfo(null, "jamie", "Jamie Oliver", "hash", null));
+    }
+
+    @Test
+    void uploadsBeyondTheBurstAreRefusedWithRetryAfterWhileReadsGoOn() throws Exception {
+        String gordon = jwtUtil.generateToken("gordon");
+        String jamie = jwtUtil.generateToken("jamie");
+
+        upload(gordon).andExpect(status().isOk());
+        upload(gordon).andExpect(status().isOk());
+        upload(gordon).andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "60"));
+
+        // Another user has a bucket of their own, until the shared address runs out too
+        upload(jamie).andExpect(status().isOk());
+        upload(jamie).andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(get("/recipes").header(HttpHeaders.AUTHORIZATION, "Bearer " + gordon))
+                .andExpect(status().isOk());
+        assertThat(recipeRepository.count()).isEqualTo(3);
+        assertThat(rejections("user")).isEqualTo(1);
+        assertThat(rejections("client")).isEqualTo(1);
+    }
+
+    private ResultActions upload(String token) throws Exception {
+        return mockMvc.perform(multipart("/recipes")
+                .param("title", "Beef Wellington")
+                .param("difficulty", "HARD")
+                .param("instructions", "Wrap and bake.")
+                .param("ingredients", "[\"beef\",\"puff pastry\"]")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    private double rejections(String key) {
+        return meterRegistry.get("ratelimit.rejected").tag("policy", "upload").tag("key", key).counter().count();
+    }
+}
@@ -0,0 +1,123 @@
+package com.recipevault.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.recipevault.dto.RecipeRequestDTO;
+import com.recipevault.model.Recipe;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.service.RecipeService;
+import com.recipevault.util.JwtUtil;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RecipeETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        userRepository.save(new UserInfo(null, "chef", "Chef", "hash", null));
+        token = jwtUtil.generateToken("chef");
+    }
+
+    @Test
+    void matchingListingETagIsAnsweredWithoutTouchingTheDatabase() throws Exception {
+        recipeService.createRecipe("chef", request("Laksa"));
+        String etag = etagOf("/recipes");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        byte[] body = mockMvc.perform(get("/recipes").header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(body).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void writesInvalidateTheListingAndTheRecipe() throws Exception {
+        Recipe recipe = recipeService.createRecipe("chef", request("Laksa"));
+        String listing = etagOf("/recipes");
+        String detail = etagOf("/recipes/" + recipe.getId());
+
+        recipeService.updateRecipe("chef", recipe.getId(), request("Curry Laksa"), false);
+
+        assertThat(etagOf("/recipes")).isNotEqualTo(listing);
+        assertThat(etagOf("/recipes/" + recipe.getId())).isNotEqualTo(detail);
+        mockMvc.perform(get("/recipes/" + recipe.getId()).header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, detail))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void otherRecipesKeepTheirETags() throws Exception {
+        Recipe laksa = recipeService.createRecipe("chef", request("Laksa"));
+        Recipe rendang = recipeService.createRecipe("chef", request("Rendang"));
+        String detail = etagOf("/recipes/" + rendang.getId());
+
+        recipeService.updateRecipe("chef", laksa.getId(), request("Curry Laksa"), false);
+
+        mockMvc.perform(get("/recipes/" + rendang.getId()).header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, detail))
+                .andExpect(status().isNotModified());
+    }
+
+    private String etagOf(String url) throws Exception {
+        return mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static RecipeRequestDTO request(String title) {
+        RecipeRequestDTO dto = new RecipeRequestDTO();
+        dto.setTitle(title);
+        dto.setDifficulty("EASY");
+        dto.setInstructions("Simmer.");
+        dto.setIngredients(List.of("noodles", "coconut milk"));
+        return dto;
+    }
+}
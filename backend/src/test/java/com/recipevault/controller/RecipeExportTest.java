@@ -0,0 +1,157 @@
+package com.recipevault.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipevault.model.Difficulty;
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.service.IngredientDictionary;
+import com.recipevault.util.JwtUtil;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RecipeExportTest {
+    private static final LocalDateTime JANUARY = LocalDateTime.of(2025, 1, 15, 12, 0);
+    private static final LocalDateTime MARCH = LocalDateTime.of(2025, 3, 15, 12, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IngredientDictionary dictionary;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        UserInfo ana = userRepository.save(new UserInfo(null, "ana", "Ana", "hash", null));
+        UserInfo ben = userRepository.save(new UserInfo(null, "ben", "Ben", "hash", null));
+        recipeRepository.saveAll(List.of(
+                recipe("Laksa", ana, JANUARY, "noodles", "coconut milk", "prawns"),
+                recipe("Rendang", ana, MARCH, "beef", "kerisik"),
+                recipe("Toast", ben, MARCH)));
+        token = jwtUtil.generateToken("ana");
+    }
+
+    @Test
+    void streamsEveryRecipeWithItsIngredientsInIdOrder() throws Exception {
+        List<JsonNode> recipes = lines(export(get("/recipes/export")));
+
+        assertThat(recipes).extracting(recipe -> recipe.get("title").asText()).containsExactly("Laksa", "Rendang", "Toast");
+        assertThat(recipes.get(0).get("ingredients")).extracting(JsonNode::asText)
+                .containsExactly("noodles", "coconut milk", "prawns");
+        assertThat(recipes.get(0).get("username").asText()).isEqualTo("ana");
+        assertThat(recipes.get(2).get("ingredients")).isEmpty();
+    }
+
+    @Test
+    void exportsEachRecipesOwnWordingOfSharedIngredients() throws Exception {
+        UserInfo ben = userRepository.findByUsername("ben").orElseThrow();
+        recipeRepository.save(recipe("Curry Noodles", ben, MARCH, "Noodles", "2 cups Coconut Milk"));
+
+        List<JsonNode> recipes = lines(export(get("/recipes/export").param("user", "ben")));
+
+        assertThat(recipes.get(1).get("ingredients")).extracting(JsonNode::asText)
+                .containsExactly("Noodles", "2 cups Coconut Milk");
+    }
+
+    @Test
+    void filtersByUserAndCreatedDate() throws Exception {
+        assertThat(lines(export(get("/recipes/export").param("user", "ben"))))
+                .extracting(recipe -> recipe.get("title").asText()).containsExactly("Toast");
+        assertThat(lines(export(get("/recipes/export").param("user", "ana").param("from", "2025-02-01T00:00:00"))))
+                .extracting(recipe -> recipe.get("title").asText()).containsExactly("Rendang");
+        assertThat(lines(export(get("/recipes/export").param("to", "2025-02-01T00:00:00"))))
+                .extracting(recipe -> recipe.get("title").asText()).containsExactly("Laksa");
+    }
+
+    @Test
+    void compressesWhenTheClientAcceptsGzip() throws Exception {
+        byte[] body = mockMvc.perform(get("/recipes/export").header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(lines(new String(in.readAllBytes(), StandardCharsets.UTF_8))).hasSize(3);
+        }
+    }
+
+    @Test
+    void rejectsAnUnknownUser() throws Exception {
+        mockMvc.perform(get("/recipes/export").param("user", "nobody").header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String export(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request.header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private List<JsonNode> lines(String body) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private Recipe recipe(String title, UserInfo user, LocalDateTime createdDate, String... ingredientNames) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(title);
+        recipe.setDifficulty(Difficulty.EASY);
+        recipe.setInstructions("Cook it.");
+        recipe.setUser(user);
+        recipe.setCreatedDate(createdDate);
+        List<Ingredient> ingredients = dictionary.link(recipe, List.of(ingredientNames));
+        recipe.setIngredients(ingredients);
+        recipe.setIngredientCount(ingredients.size());
+        return recipe;
+    }
+}
@@ -0,0 +1,142 @@
+package com.recipevault.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipevault.model.Recipe;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.service.RecipeSearchIndex;
+import com.recipevault.service.RecipeVersions;
+import com.recipevault.util.JwtUtil;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "recipes.import.chunk-size=100")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RecipeImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeSearchIndex searchIndex;
+
+    @Autowired
+    private RecipeVersions versions;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        userRepository.save(new UserInfo(null, "partner", "Partner", "hash", null));
+        token = jwtUtil.generateToken("partner");
+    }
+
+    @Test
+    void importsNdjsonInBatchedChunksAndReportsBadRows() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            body.append("{\"title\":\"Imported ").append(i)
+                    .append("\",\"difficulty\":\"easy\",\"instructions\":\"Mix.\",\"ingredients\":[\"flour\",\"egg\",\"milk\"]}\n");
+        }
+        body.append("{\"title\":\"No difficulty\",\"ingredients\":[\"salt\"]}\n");
+        body.append("{not json\n");
+        String etag = versions.catalogueETag();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<JsonNode> events = importBody("application/x-ndjson", body.toString());
+
+        assertThat(recipeRepository.count()).isEqualTo(250);
+        // 250 recipes and 750 ingredients in three chunks: a few batches plus sequence calls, not 1000 INSERTs
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(100);
+        assertThat(events).filteredOn(event -> event.has("error"))
+                .extracting(event -> event.get("error").get("line").asLong())
+                .containsExactly(251L, 252L);
+        assertThat(events).filteredOn(event -> event.has("progress")).hasSizeGreaterThanOrEqualTo(3);
+        JsonNode done = events.get(events.size() - 1).get("done");
+        assertThat(done.get("rows").asLong()).isEqualTo(252);
+        assertThat(done.get("imported").asLong()).isEqualTo(250);
+        assertThat(done.get("failed").asLong()).isEqualTo(2);
+
+        // Imported recipes are searchable and invalidate cached listings straight away
+        assertThat(searchIndex.search("imported", 5)).hasSize(5);
+        assertThat(versions.catalogueETag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void importsCsvWithQuotedFields() throws Exception {
+        String body = "title,difficulty,instructions,ingredients\n"
+                + "\"Laksa, Penang\",MEDIUM,\"Simmer.\nServe hot.\",noodles|coconut milk|prawns\n"
+                + "Rendang,IMPOSSIBLE,Braise.,beef\n";
+
+        List<JsonNode> events = importBody("text/csv", body);
+
+        List<Recipe> recipes = recipeRepository.findAll();
+        assertThat(recipes).singleElement().satisfies(recipe -> {
+            assertThat(recipe.getTitle()).isEqualTo("Laksa, Penang");
+            assertThat(recipe.getInstructions()).isEqualTo("Simmer.\nServe hot.");
+            assertThat(recipe.getIngredientCount()).isEqualTo(3);
+        });
+        // The Laksa row spans lines 2-3, so the rejected row is on line 4
+        assertThat(events.get(0).get("error").get("line").asLong()).isEqualTo(4);
+    }
+
+    @Test
+    void rejectsCsvWithoutTheRequiredColumns() throws Exception {
+        mockMvc.perform(post("/recipes/import").header("Authorization", "Bearer " + token)
+                        .contentType("text/csv")
+                        .content("name,steps\nLaksa,Simmer\n"))
+                .andExpect(status().isBadRequest());
+        assertThat(recipeRepository.count()).isZero();
+    }
+
+    private List<JsonNode> importBody(String contentType, String body) throws Exception {
+        String response = mockMvc.perform(post("/recipes/import").header("Authorization", "Bearer " + token)
+                        .contentType(contentType)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            events.add(objectMapper.readTree(line));
+        }
+        return events;
+    }
+}
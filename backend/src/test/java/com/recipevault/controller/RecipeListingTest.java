@@ -0,0 +1,158 @@
+package com.recipevault.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipevault.model.Difficulty;
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.service.IngredientDictionary;
+import com.recipevault.util.JwtUtil;
+
+/**
+ * GET /recipes and /recipes/my page by keyset cursor: following nextCursor
+ * must visit every matching recipe exactly once, newest first, with the
+ * filters applied on every page.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RecipeListingTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 6, 2, 9, 0);
+    private static final LocalDateTime TUESDAY = MONDAY.plusDays(1);
+    private static final LocalDateTime WEDNESDAY = MONDAY.plusDays(2);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IngredientDictionary dictionary;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        UserInfo ana = userRepository.save(new UserInfo(null, "ana", "Ana", "hash", null));
+        UserInfo ben = userRepository.save(new UserInfo(null, "ben", "Ben", "hash", null));
+        // Saved in this order, so ids rise down the list; three share Tuesday, so the id breaks the tie
+        recipeRepository.saveAll(List.of(
+                recipe("Beef Rendang", Difficulty.HARD, ana, MONDAY, "beef", "kerisik", "lemongrass"),
+                recipe("Chicken Rice", Difficulty.MEDIUM, ben, TUESDAY, "chicken", "rice"),
+                recipe("Chicken Curry", Difficulty.MEDIUM, ana, TUESDAY, "chicken", "curry paste", "coconut milk"),
+                recipe("Kaya Toast", Difficulty.EASY, ana, TUESDAY, "bread", "kaya"),
+                recipe("Chicken Satay", Difficulty.MEDIUM, ana, WEDNESDAY, "chicken", "peanuts", "cucumber"),
+                recipe("Egg Fried Rice", Difficulty.EASY, ben, WEDNESDAY, "rice", "egg")));
+        token = jwtUtil.generateToken("ana");
+    }
+
+    @Test
+    void followingTheCursorVisitsEveryRecipeOnceNewestFirst() throws Exception {
+        assertThat(titles("/recipes", 2)).containsExactly(
+                "Egg Fried Rice", "Chicken Satay", "Kaya Toast", "Chicken Curry", "Chicken Rice", "Beef Rendang");
+        assertThat(titles("/recipes", 4)).containsExactly(
+                "Egg Fried Rice", "Chicken Satay", "Kaya Toast", "Chicken Curry", "Chicken Rice", "Beef Rendang");
+    }
+
+    @Test
+    void filtersApplyAloneAndTogetherOnEveryPage() throws Exception {
+        assertThat(titles("/recipes", 1, "title", "chicken"))
+                .containsExactly("Chicken Satay", "Chicken Curry", "Chicken Rice");
+        assertThat(titles("/recipes", 1, "difficulty", "easy"))
+                .containsExactly("Egg Fried Rice", "Kaya Toast");
+        assertThat(titles("/recipes", 1, "ingredientCount", "3"))
+                .containsExactly("Chicken Satay", "Chicken Curry", "Beef Rendang");
+        assertThat(titles("/recipes", 1, "title", "chicken", "ingredientCount", "3"))
+                .containsExactly("Chicken Satay", "Chicken Curry");
+        assertThat(titles("/recipes", 1, "title", "rice", "difficulty", "medium"))
+                .containsExactly("Chicken Rice");
+        assertThat(titles("/recipes", 1, "title", "CHICKEN", "difficulty", "medium", "ingredientCount", "2"))
+                .containsExactly("Chicken Rice");
+        assertThat(titles("/recipes", 1, "difficulty", "hard", "ingredientCount", "2")).isEmpty();
+    }
+
+    @Test
+    void ownRecipesPageThroughOnlyTheCallersRecipes() throws Exception {
+        assertThat(titles("/recipes/my", 1))
+                .containsExactly("Chicken Satay", "Kaya Toast", "Chicken Curry", "Beef Rendang");
+    }
+
+    @Test
+    void aMalformedCursorIsABadRequest() throws Exception {
+        mockMvc.perform(get("/recipes").param("cursor", "not-a-cursor").header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Follows nextCursor from the first page to the last, collecting titles; filters are name, value pairs
+    private List<String> titles(String url, int size, String... filters) throws Exception {
+        List<String> titles = new ArrayList<>();
+        String cursor = null;
+        for (int pages = 0; pages < 20; pages++) {
+            MockHttpServletRequestBuilder request = get(url).param("size", String.valueOf(size))
+                    .header("Authorization", "Bearer " + token);
+            for (int i = 0; i < filters.length; i += 2) {
+                request.param(filters[i], filters[i + 1]);
+            }
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            assertThat(page.get("items").size()).isLessThanOrEqualTo(size);
+            page.get("items").forEach(item -> titles.add(item.get("title").asText()));
+            JsonNode next = page.get("nextCursor");
+            if (next == null || next.isNull()) {
+                return titles;
+            }
+            cursor = next.asText();
+        }
+        throw new AssertionError("Cursor did not reach the last page: " + titles);
+    }
+
+    private Recipe recipe(String title, Difficulty difficulty, UserInfo user, LocalDateTime createdDate, String... ingredientNames) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(title);
+        recipe.setDifficulty(difficulty);
+        recipe.setInstructions("Cook it.");
+        recipe.setUser(user);
+        recipe.setCreatedDate(createdDate);
+        List<Ingredient> ingredients = dictionary.link(recipe, List.of(ingredientNames));
+        recipe.setIngredients(ingredients);
+        recipe.setIngredientCount(ingredients.size());
+        return recipe;
+    }
+}
@@ -0,0 +1,136 @@
+package com.recipevault.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.recipevault.model.Difficulty;
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.service.IngredientDictionary;
+import com.recipevault.util.JwtUtil;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Guards against N+1 regressions: the number of SQL statements an endpoint
+ * issues must not depend on how many recipes it returns.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RecipeQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IngredientDictionary dictionary;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listingQueryCountIsIndependentOfPageSize() throws Exception {
+        String token = seed(5, 40);
+
+        long small = countStatements("/recipes?size=2", token);
+        long large = countStatements("/recipes?size=40", token);
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void myRecipesQueryCountIsIndependentOfPageSize() throws Exception {
+        String token = seed(1, 40);
+
+        long small = countStatements("/recipes/my?size=2", token);
+        long large = countStatements("/recipes/my?size=40", token);
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void detailQueryCountIsIndependentOfIngredientCount() throws Exception {
+        String token = seed(1, 2);
+        List<Recipe> recipes = recipeRepository.findAll();
+
+        long few = countStatements("/recipes/" + recipes.get(0).getId(), token);
+        long many = countStatements("/recipes/" + recipes.get(1).getId(), token);
+
+        assertThat(many).isEqualTo(few);
+    }
+
+    // Measures a warm request, so per-process caches (e.g. the principal cache) do not skew the comparison
+    private long countStatements(String url, String token) throws Exception {
+        mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        statistics.clear();
+        mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Creates users with recipes spread round-robin; the i-th recipe has i + 1 ingredients
+    private String seed(int userCount, int recipeCount) {
+        List<UserInfo> users = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            users.add(new UserInfo(null, "user" + i, "User " + i, "hash", null));
+        }
+        userRepository.saveAll(users);
+
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < recipeCount; i++) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Recipe " + i);
+            recipe.setDifficulty(Difficulty.EASY);
+            recipe.setInstructions("Cook it.");
+            recipe.setUser(users.get(i % userCount));
+            List<String> names = new ArrayList<>();
+            for (int j = 0; j <= i; j++) {
+                names.add("Ingredient " + j);
+            }
+            List<Ingredient> ingredients = dictionary.link(recipe, names);
+            recipe.setIngredients(ingredients);
+            recipe.setIngredientCount(ingredients.size());
+            recipes.add(recipe);
+        }
+        recipeRepository.saveAll(recipes);
+
+        return jwtUtil.generateToken(users.get(0).getUsername());
+    }
+}
@@ -0,0 +1,123 @@
+package com.recipevault.controller;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.recipevault.dto.RecipeRequestDTO;
+import com.recipevault.model.Recipe;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.service.RecipeService;
+import com.recipevault.util.JwtUtil;
+
+// A second in-memory H2 plays the replica; it only sees what replicate() copies over from the primary.
+// max-lag=0s turns off the after-any-write pause so the test doesn't have to wait it out, and with the
+// second-level cache off every read reaches a database.
+@SpringBootTest(properties = {
+        "datasource.replicas.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "datasource.replicas.max-lag=0s",
+        "cache.second-level.enabled=false"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:recipevault-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String SNAPSHOT = "target/replica-snapshot.sql";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        userRepository.save(new UserInfo(null, "gordon", "Gordon Ramsay", "hash", null));
+        userRepository.save(new UserInfo(null, "jamie", "Jamie Oliver", "hash", null));
+    }
+
+    @Test
+    void othersReadTheReplicaWhileTheWriterReadsTheirOwnWrites() throws Exception {
+        recipeService.createRecipe("gordon", request("Laksa"));
+        replicate();
+        Recipe rendang = recipeService.createRecipe("gordon", request("Rendang"));
+
+        // The replica hasn't caught up with Rendang yet
+        String jamie = jwtUtil.generateToken("jamie");
+        mockMvc.perform(get("/recipes").header(HttpHeaders.AUTHORIZATION, "Bearer " + jamie))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].title").value(contains("Laksa")));
+        mockMvc.perform(get("/recipes/" + rendang.getId()).header(HttpHeaders.AUTHORIZATION, "Bearer " + jamie))
+                .andExpect(status().isNotFound());
+
+        // Having just written, Gordon reads from the primary
+        String gordon = jwtUtil.generateToken("gordon");
+        mockMvc.perform(multipart("/recipes")
+                        .param("title", "Satay")
+                        .param("difficulty", "MEDIUM")
+                        .param("instructions", "Skewer and grill.")
+                        .param("ingredients", "[\"chicken\",\"peanuts\"]")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + gordon))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/recipes/my").header(HttpHeaders.AUTHORIZATION, "Bearer " + gordon))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].title").value(containsInAnyOrder("Laksa", "Rendang", "Satay")));
+        mockMvc.perform(get("/recipes/" + rendang.getId()).header(HttpHeaders.AUTHORIZATION, "Bearer " + gordon))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/recipes").header(HttpHeaders.AUTHORIZATION, "Bearer " + jamie))
+                .andExpect(jsonPath("$.items[*].title").value(contains("Laksa")));
+    }
+
+    private void replicate() throws SQLException {
+        jdbcTemplate.execute("SCRIPT TO '" + SNAPSHOT + "'");
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("RUNSCRIPT FROM '" + SNAPSHOT + "'");
+        }
+    }
+
+    private static RecipeRequestDTO request(String title) {
+        RecipeRequestDTO dto = new RecipeRequestDTO();
+        dto.setTitle(title);
+        dto.setDifficulty("EASY");
+        dto.setInstructions("Simmer.");
+        dto.setIngredients(List.of("noodles", "coconut milk"));
+        return dto;
+    }
+}
@@ -0,0 +1,165 @@
+package com.recipevault.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.recipevault.dto.RecipeRequestDTO;
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.service.RecipeService;
+import com.recipevault.util.JwtUtil;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        userRepository.save(new UserInfo(null, "chef", "Chef", "hash", null));
+        token = jwtUtil.generateToken("chef");
+    }
+
+    @Test
+    void warmDetailRunsNoSqlAndWritesAreSeenAtOnce() throws Exception {
+        Recipe recipe = recipeService.createRecipe("chef", request("Laksa"));
+        detail(recipe.getId()).andExpect(status().isOk());
+
+        statistics().clear();
+        detail(recipe.getId())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Laksa"))
+                .andExpect(jsonPath("$.ingredients[*].ingredientName").value(contains("noodles", "coconut milk")))
+                .andExpect(jsonPath("$.ingredients[0].length()").value(1));
+        assertThat(statistics().getPrepareStatementCount()).isZero();
+        assertThat(hits("recipes")).isEqualTo(1);
+
+        recipeService.updateRecipe("chef", recipe.getId(), request("Curry Laksa", "noodles", "tofu puffs"), false);
+        detail(recipe.getId())
+                .andExpect(jsonPath("$.title").value("Curry Laksa"))
+                .andExpect(jsonPath("$.ingredients[*].ingredientName").value(contains("noodles", "tofu puffs")));
+
+        recipeService.deleteRecipe("chef", recipe.getId());
+        detail(recipe.getId()).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void ownRecipesComeFromTheQueryCacheUntilTheNextWrite() throws Exception {
+        recipeService.createRecipe("chef", request("Laksa"));
+        myRecipes().andExpect(jsonPath("$.items[*].title").value(contains("Laksa")));
+
+        statistics().clear();
+        myRecipes().andExpect(jsonPath("$.items[*].title").value(contains("Laksa")));
+        assertThat(statistics().getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(1); // the user lookup
+
+        recipeService.createRecipe("chef", request("Rendang"));
+        myRecipes().andExpect(jsonPath("$.items[*].title").value(contains("Rendang", "Laksa")));
+    }
+
+    @Test
+    void ingredientsAreOnlyLoadedWhereTheyAreRead() throws Exception {
+        Recipe recipe = recipeService.createRecipe("chef", request("Laksa"));
+        detail(recipe.getId()).andExpect(status().isOk()); // ingredient list now cached
+
+        Recipe loaded = recipeRepository.findAllWithUserByIdIn(List.of(recipe.getId())).get(0);
+        assertThat(Hibernate.isInitialized(loaded.getIngredients())).isFalse();
+        assertThat(recipeRepository.findWithIngredientsById(recipe.getId()).orElseThrow().getIngredients())
+                .extracting(Ingredient::getIngredientName).containsExactly("noodles", "coconut milk");
+    }
+
+    @Test
+    void imageVariantsOnlyReplaceTheEntriesOfRecipesShowingTheImage() throws Exception {
+        Recipe withImage = recipeService.createRecipe("chef", request("Laksa"));
+        withImage.setImageUrl("/uploads/ab/cd/abcdef.png");
+        recipeRepository.save(withImage);
+        Recipe other = recipeService.createRecipe("chef", request("Rendang"));
+        detail(withImage.getId()).andExpect(status().isOk());
+        detail(other.getId()).andExpect(status().isOk());
+
+        assertThat(recipeRepository.setImageVariants("/uploads/ab/cd/abcdef.png",
+                "/uploads/ab/cd/abcdef-card.jpg", "/uploads/ab/cd/abcdef-detail.jpg")).containsExactly(withImage.getId());
+
+        statistics().clear();
+        detail(other.getId()).andExpect(jsonPath("$.title").value("Rendang"));
+        detail(withImage.getId()).andExpect(jsonPath("$.cardImageUrl").value("/uploads/ab/cd/abcdef-card.jpg"));
+        assertThat(statistics().getPrepareStatementCount()).isZero();
+    }
+
+    private ResultActions detail(Long id) throws Exception {
+        return mockMvc.perform(get("/recipes/" + id).header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    private ResultActions myRecipes() throws Exception {
+        return mockMvc.perform(get("/recipes/my").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private double hits(String region) {
+        return meterRegistry.get("hibernate.second.level.cache.requests").tag("region", region).tag("result", "hit")
+                .functionCounter().count();
+    }
+
+    private static RecipeRequestDTO request(String title, String... ingredients) {
+        RecipeRequestDTO dto = new RecipeRequestDTO();
+        dto.setTitle(title);
+        dto.setDifficulty("EASY");
+        dto.setInstructions("Simmer.");
+        dto.setIngredients(ingredients.length == 0 ? List.of("noodles", "coconut milk") : List.of(ingredients));
+        return dto;
+    }
+}
@@ -0,0 +1,119 @@
+package com.recipevault.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.recipevault.dto.RecipeRequestDTO;
+import com.recipevault.model.Recipe;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.repository.UserRepository;
+import com.recipevault.service.RecipeService;
+import com.recipevault.util.JwtUtil;
+
+/**
+ * Drives every endpoint that declares a {@code @SqlBudget}. The test profile
+ * enforces budgets, so an endpoint that starts issuing more statements (an
+ * eager association, a lazy collection touched while serialising) fails
+ * here with the statements it ran.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SqlBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void authEndpointsStayWithinTheirBudgets() throws Exception {
+        String credentials = "{\"username\":\"budget\",\"fullName\":\"Budget\",\"password\":\"secret\"}";
+        mockMvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void recipeEndpointsStayWithinTheirBudgets() throws Exception {
+        String token = registerChef();
+        for (int i = 0; i < 12; i++) {
+            recipeService.createRecipe("chef", request("Laksa " + i, List.of("noodles", "coconut milk", "prawns " + i)));
+        }
+        Recipe recipe = recipeRepository.findAll().get(0);
+
+        // Cold and warm: the first request of a kind may fill a cache, and must still fit
+        for (int pass = 0; pass < 2; pass++) {
+            perform(get("/recipes?size=10"), token);
+            perform(get("/recipes/" + recipe.getId()), token);
+            perform(get("/recipes/my?size=10"), token);
+            perform(get("/recipes/search?q=laksa"), token);
+            perform(get("/recipes/pantry?ingredients=noodles,prawns"), token);
+        }
+
+        perform(recipeForm(multipart("/recipes"), "Rendang", "[\"beef\",\"coconut milk\",\"lemongrass\",\"galangal\"]"), token);
+        perform(recipeForm(multipart(HttpMethod.PUT, "/recipes/" + recipe.getId()), "Curry Laksa",
+                "[\"noodles\",\"coconut milk\",\"tofu puffs\"]"), token);
+        mockMvc.perform(delete("/recipes/" + recipe.getId()).header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+    }
+
+    private void perform(MockHttpServletRequestBuilder request, String token) throws Exception {
+        mockMvc.perform(request.header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+    }
+
+    private String registerChef() {
+        userRepository.save(new UserInfo(null, "chef", "Chef", "hash", null));
+        return jwtUtil.generateToken("chef");
+    }
+
+    private static MockHttpServletRequestBuilder recipeForm(MockHttpServletRequestBuilder builder, String title, String ingredients) {
+        return builder.param("title", title)
+                .param("difficulty", "MEDIUM")
+                .param("instructions", "Simmer.")
+                .param("ingredients", ingredients);
+    }
+
+    private static RecipeRequestDTO request(String title, List<String> ingredients) {
+        RecipeRequestDTO dto = new RecipeRequestDTO();
+        dto.setTitle(title);
+        dto.setDifficulty("EASY");
+        dto.setInstructions("Simmer.");
+        dto.setIngredients(ingredients);
+        return dto;
+    }
+}
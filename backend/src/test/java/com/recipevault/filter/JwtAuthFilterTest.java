@@ -0,0 +1,45 @@
+package com.recipevault.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import com.recipevault.service.UserService;
+import com.recipevault.util.JwtUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtAuthFilterTest {
+    private final JwtUtil jwtUtil = new JwtUtil("RECIPE_VAULT_SECRET_KEY_123456789", 60_000, new SimpleMeterRegistry());
+    private final UserService userService = mock(UserService.class);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void theTokensClaimsReachTheSecurityContext() throws Exception {
+        when(userService.loadUserByUsername("gordon")).thenReturn(new User("gordon", "hash", List.of()));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/recipes");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken("gordon"));
+
+        new JwtAuthFilter(jwtUtil, userService).doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getName()).isEqualTo("gordon");
+        assertThat(authentication).isInstanceOfSatisfying(JwtAuthenticationToken.class,
+                token -> assertThat(token.getClaims().getSubject()).isEqualTo("gordon"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.recipevault.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.recipevault.exception.SqlBudgetExceededException;
+import com.recipevault.util.SqlStatements;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.servlet.FilterChain;
+
+class SqlBudgetFilterTest {
+    private final SqlStatements inspector = new SqlStatements();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void overrunFailsTheRequestWithItsStatementShapes() throws Exception {
+        SqlBudgetFilter filter = new SqlBudgetFilter(true, 0, Duration.ofSeconds(1), registry);
+
+        FilterChain nPlusOne = (request, response) -> {
+            inspector.inspect("select * from recipes where user_id = ?");
+            for (int i = 0; i < 3; i++) {
+                inspector.inspect("select * from recipe_ingredients where recipe_id = ?");
+            }
+        };
+
+        assertThatThrownBy(() -> filter.doFilter(request("budgeted"), new MockHttpServletResponse(), nPlusOne))
+                .isInstanceOf(SqlBudgetExceededException.class)
+                .hasMessageContaining("GET /recipes/{id}: 4 SQL statements (budget 2)")
+                .hasMessageContaining("3x")
+                .hasMessageContaining("select * from recipe_ingredients where recipe_id = ?");
+        assertThat(registry.get("sql.budget.exceeded").tag("uri", "/recipes/{id}").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void requestsWithinBudgetOrWithoutOnePassThrough() throws Exception {
+        SqlBudgetFilter filter = new SqlBudgetFilter(true, 0, Duration.ofSeconds(1), registry);
+        FilterChain twoStatements = (request, response) -> {
+            inspector.inspect("select * from recipes where id = ?");
+            inspector.inspect("select * from users where id = ?");
+        };
+
+        filter.doFilter(request("budgeted"), new MockHttpServletResponse(), twoStatements);
+        filter.doFilter(request("unbudgeted"), new MockHttpServletResponse(), twoStatements);
+
+        assertThat(registry.find("sql.budget.exceeded").counter()).isNull();
+    }
+
+    @Test
+    void statementsOutsideARequestAreNotRecorded() throws Exception {
+        SqlStatements.Recording recording = SqlStatements.start();
+        SqlStatements.stop();
+
+        inspector.inspect("select 1");
+
+        assertThat(recording.statements()).isZero();
+    }
+
+    @Test
+    void inListsOfAnyLengthShareAShape() {
+        assertThat(SqlStatements.shape("select * from recipes where id in (?,?,?)"))
+                .isEqualTo(SqlStatements.shape("select *\n  from recipes where id in ( ?, ? )"))
+                .isEqualTo("select * from recipes where id in (?, ...)");
+    }
+
+    private static MockHttpServletRequest request(String handler) throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/recipes/7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new Handlers(), Handlers.class.getMethod(handler)));
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/recipes/{id}");
+        return request;
+    }
+
+    static class Handlers {
+        @SqlBudget(statements = 2)
+        public void budgeted() {
+        }
+
+        public void unbudgeted() {
+        }
+    }
+}
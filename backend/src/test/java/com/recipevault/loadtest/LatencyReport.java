@@ -0,0 +1,78 @@
+package com.recipevault.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency per operation in microseconds, measured from when each request
+ * was due rather than when it was sent, so a stalled server shows up in the
+ * tail instead of quietly lowering the offered load.
+ */
+class LatencyReport {
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<Workload.Operation, Histogram> histograms = new EnumMap<>(Workload.Operation.class);
+    private final Map<Workload.Operation, LongAdder> errors = new EnumMap<>(Workload.Operation.class);
+
+    LatencyReport() {
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Workload.Operation operation, long latencyNanos, boolean ok) {
+        histograms.get(operation).recordValue(Math.min(MAX_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (!ok) {
+            errors.get(operation).increment();
+        }
+    }
+
+    void print(PrintStream out, double seconds) {
+        out.printf("%-8s %9s %9s %7s %9s %9s %9s %9s %9s%n",
+                "", "requests", "req/s", "errors", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram total = new Histogram(MAX_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            total.add(histogram);
+            totalErrors += errors.get(operation).sum();
+            printRow(out, operation.label(), histogram, errors.get(operation).sum(), seconds);
+        }
+        printRow(out, "all", total, totalErrors, seconds);
+    }
+
+    /** One .hgrm percentile distribution per operation, loadable in HdrHistogram's plotter. */
+    void writeDistributions(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(operation.label() + ".hgrm")))) {
+                histograms.get(operation).outputPercentileDistribution(out, 1000.0); // in milliseconds
+            }
+        }
+    }
+
+    private static void printRow(PrintStream out, String label, Histogram histogram, long errors, double seconds) {
+        if (histogram.getTotalCount() == 0) {
+            out.printf("%-8s %9d%n", label, 0);
+            return;
+        }
+        out.printf("%-8s %9d %9.1f %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", label, histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds, errors,
+                millis(histogram, 50), millis(histogram, 95), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,160 @@
+package com.recipevault.loadtest;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.recipevault.RecipevaultApplication;
+
+/**
+ * End-to-end load test on one machine. Boots the app with the
+ * {@code loadtest} profile (embedded H2, local uploads), seeds users and
+ * recipes through the API, then offers an open-model Poisson arrival rate
+ * of logins, listings, details, creates with an image, updates and deletes.
+ * Requests are sent at their due time whether or not earlier ones have
+ * answered, and latency is measured from that due time, so the report shows
+ * what users would see rather than what a closed loop of clients would.
+ * Not a test; run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.recipevault.loadtest.LoadTest -Dexec.args="rate=300 duration=60"}
+ * <p>
+ * Arguments (all optional): {@code rate} requests per second (200), {@code duration} and
+ * {@code warmup} in seconds (60, 10), {@code users} (20), {@code recipes} to seed (2000),
+ * {@code mix} weights such as {@code list:40,detail:30,login:10,create:8,update:7,delete:5},
+ * {@code seed} (42), {@code max-in-flight} (10000), {@code threads} ({@code platform} or
+ * {@code virtual}, for the booted app's request threads; as configured if not given) and
+ * {@code target} to load an already-running instance instead of booting one. Anything
+ * starting with {@code --} is passed to Spring, e.g. {@code --spring.datasource.hikari.maximum-pool-size=50}.
+ * <p>
+ * To compare thread models, run the same rate and mix once with {@code threads=platform} and
+ * once with {@code threads=virtual}; a rate above what Tomcat's platform pool can keep up with
+ * shows the difference in the tail latencies and dropped requests.
+ */
+public class LoadTest {
+    private static final Path REPORT_DIR = Path.of("target", "loadtest");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> springArgs = new ArrayList<>(List.of("--server.port=0"));
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                springArgs.add(arg);
+            } else {
+                String[] parts = arg.split("=", 2);
+                options.put(parts[0], parts[1]);
+            }
+        }
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int users = Integer.parseInt(options.getOrDefault("users", "20"));
+        int recipes = Integer.parseInt(options.getOrDefault("recipes", "2000"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "10000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Map<Workload.Operation, Integer> weights = options.containsKey("mix")
+                ? Workload.parseWeights(options.get("mix")) : Workload.defaultWeights();
+        String threads = options.get("threads");
+        if (threads != null) {
+            if (!threads.equals("platform") && !threads.equals("virtual")) {
+                throw new IllegalArgumentException("threads must be platform or virtual, not " + threads);
+            }
+            springArgs.add("--spring.threads.virtual.enabled=" + threads.equals("virtual"));
+        }
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("target");
+        if (baseUrl == null) {
+            context = new SpringApplicationBuilder(RecipevaultApplication.class).profiles("loadtest")
+                    .run(springArgs.toArray(String[]::new));
+            baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            boolean virtual = context.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+            System.out.printf("Serving requests on %s threads%n", virtual ? "virtual" : "platform");
+        }
+        try {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10)).build();
+            Workload workload = new Workload(client, baseUrl, weights);
+            long seedStart = System.nanoTime();
+            workload.seed(users, recipes);
+            System.out.printf("Seeded %d users and %d recipes in %.1f s%n", users, workload.recipeCount(),
+                    (System.nanoTime() - seedStart) / 1e9);
+            System.out.printf("Offering %.0f req/s for %d s after %d s of warm-up, mix %s%n", rate, duration, warmup, weights);
+
+            LatencyReport report = new LatencyReport();
+            long[] counts = run(workload, report, new Random(seed), rate, warmup, duration, maxInFlight);
+
+            System.out.println();
+            report.print(System.out, duration);
+            System.out.printf("%nOffered %,d requests; %,d dropped at the in-flight limit of %,d%n", counts[0], counts[1], maxInFlight);
+            report.writeDistributions(REPORT_DIR);
+            System.out.println("Percentile distributions written to " + REPORT_DIR.toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    // Returns {offered, dropped}
+    private static long[] run(Workload workload, LatencyReport report, Random random, double rate,
+                              int warmup, int duration, int maxInFlight) {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup * 1_000_000_000L;
+        long end = measureFrom + duration * 1_000_000_000L;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long offered = 0;
+        LongAdder dropped = new LongAdder();
+
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            long due = start;
+            while (due < end) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+                long scheduled = due;
+                boolean measured = scheduled >= measureFrom;
+                Workload.Operation operation = workload.pick(random);
+                offered += measured ? 1 : 0;
+                if (!inFlight.tryAcquire()) {
+                    // The server has fallen so far behind that holding more requests would only measure the generator
+                    if (measured) {
+                        dropped.increment();
+                    }
+                } else {
+                    requests.execute(() -> {
+                        try {
+                            Workload.Result result = workload.execute(operation);
+                            if (measured) {
+                                report.record(result.operation(), System.nanoTime() - scheduled, result.ok());
+                            }
+                        } catch (Exception e) {
+                            if (measured) {
+                                report.record(operation, System.nanoTime() - scheduled, false);
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+                // Exponential gaps give Poisson arrivals at the target rate
+                due += (long) (-Math.log(1 - random.nextDouble()) * 1e9 / rate);
+            }
+        }
+        return new long[] {offered, dropped.sum()};
+    }
+}
@@ -0,0 +1,331 @@
+package com.recipevault.loadtest;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The traffic mix: a set of users with their own recipes, and one request
+ * per {@link Operation}. Keeps track of which recipes exist and who owns
+ * them, so updates and deletes always target the caller's own recipes.
+ */
+class Workload {
+    private static final String PASSWORD = "password123";
+    private static final String BOUNDARY = "LoadTestBoundary";
+    private static final List<String> INGREDIENTS = List.of("2 cups flour", "3 eggs", "1 cup milk", "pinch of salt",
+            "2 tbsp butter", "1 tsp vanilla", "200 g chocolate", "100 g sugar");
+
+    enum Operation {
+        LOGIN("login", 10),
+        LIST("list", 40),
+        DETAIL("detail", 30),
+        CREATE("create", 8),
+        UPDATE("update", 7),
+        DELETE("delete", 5);
+
+        private final String label;
+        private final int defaultWeight;
+
+        Operation(String label, int defaultWeight) {
+            this.label = label;
+            this.defaultWeight = defaultWeight;
+        }
+
+        String label() {
+            return label;
+        }
+    }
+
+    /** What was actually sent; an update or delete falls back to a create when the user owns nothing. */
+    record Result(Operation operation, boolean ok) {
+    }
+
+    private static final class Session {
+        final String username;
+        final ConcurrentLinkedDeque<Long> owned = new ConcurrentLinkedDeque<>();
+        volatile String token;
+
+        Session(String username) {
+            this.username = username;
+        }
+    }
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Session> sessions = new ArrayList<>();
+    private final Map<String, Session> sessionsByName = new ConcurrentHashMap<>();
+    private final RecipeIds recipeIds = new RecipeIds();
+    private final Map<Operation, Integer> weights;
+    private final int totalWeight;
+    private final byte[] image;
+    private final AtomicLong uploads = new AtomicLong();
+
+    Workload(HttpClient client, String baseUrl, Map<Operation, Integer> weights) throws IOException {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.weights = weights;
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        this.image = jpeg();
+    }
+
+    static Map<Operation, Integer> defaultWeights() {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            weights.put(operation, operation.defaultWeight);
+        }
+        return weights;
+    }
+
+    /** Parses e.g. {@code list:60,detail:40}; operations not named get weight 0. */
+    static Map<Operation, Integer> parseWeights(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            weights.put(operation, 0);
+        }
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    /** Registers and logs in the users, then bulk-imports their recipes. */
+    void seed(int userCount, int recipeCount) throws IOException, InterruptedException {
+        for (int i = 0; i < userCount; i++) {
+            Session session = new Session("load-user-" + i);
+            send(json("/auth/register", Map.of("username", session.username, "fullName", "Load User " + i, "password", PASSWORD)));
+            sessions.add(session);
+            sessionsByName.put(session.username, session);
+            login(session);
+        }
+        for (int i = 0; i < userCount; i++) {
+            StringBuilder body = new StringBuilder();
+            for (int j = i; j < recipeCount; j += userCount) {
+                body.append(objectMapper.writeValueAsString(Map.of("title", "Seeded recipe " + j, "difficulty", "easy",
+                        "instructions", "Mix everything and bake for 20 minutes.", "ingredients", ingredients(j)))).append('\n');
+            }
+            send(HttpRequest.newBuilder(uri("/recipes/import")).header("Authorization", "Bearer " + sessions.get(i).token)
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build());
+        }
+
+        // Learn the ids (and owners) from the export rather than guessing them
+        HttpResponse<String> export = send(HttpRequest.newBuilder(uri("/recipes/export"))
+                .header("Authorization", "Bearer " + sessions.get(0).token).build());
+        for (String line : export.body().split("\n")) {
+            if (!line.isBlank()) {
+                JsonNode recipe = objectMapper.readTree(line);
+                added(recipe.get("id").asLong(), recipe.get("username").asText());
+            }
+        }
+    }
+
+    int recipeCount() {
+        return recipeIds.size();
+    }
+
+    Operation pick(Random random) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    Result execute(Operation operation) throws IOException, InterruptedException {
+        Session session = sessions.get(ThreadLocalRandom.current().nextInt(sessions.size()));
+        return switch (operation) {
+            case LOGIN -> new Result(operation, login(session));
+            case LIST -> new Result(operation, ok(send(authorized(session, "/recipes?size=20").build())));
+            case DETAIL -> detail(session);
+            case CREATE -> create(session);
+            case UPDATE -> update(session);
+            case DELETE -> delete(session);
+        };
+    }
+
+    private boolean login(Session session) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(json("/auth/login", Map.of("username", session.username, "password", PASSWORD)));
+        if (!ok(response)) {
+            return false;
+        }
+        session.token = objectMapper.readTree(response.body()).get("token").asText();
+        return true;
+    }
+
+    private Result detail(Session session) throws IOException, InterruptedException {
+        Long id = recipeIds.random();
+        if (id == null) {
+            return create(session);
+        }
+        HttpResponse<String> response = send(authorized(session, "/recipes/" + id).build());
+        // A concurrent delete can win the race; that is still a correct answer
+        return new Result(Operation.DETAIL, ok(response) || response.statusCode() == 404);
+    }
+
+    private Result create(Session session) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(authorized(session, "/recipes")
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(recipeForm("Load test bake", uniqueImage()))).build());
+        if (ok(response)) {
+            added(objectMapper.readTree(response.body()).get("id").asLong(), session.username);
+        }
+        return new Result(Operation.CREATE, ok(response));
+    }
+
+    private Result update(Session session) throws IOException, InterruptedException {
+        // Rotate through the user's recipes so concurrent updates rarely land on the same one
+        Long id = session.owned.pollFirst();
+        if (id == null) {
+            return create(session);
+        }
+        try {
+            HttpResponse<String> response = send(authorized(session, "/recipes/" + id)
+                    .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(recipeForm("Updated bake " + uploads.get(), null))).build());
+            return new Result(Operation.UPDATE, ok(response));
+        } finally {
+            session.owned.addLast(id);
+        }
+    }
+
+    private Result delete(Session session) throws IOException, InterruptedException {
+        Long id = session.owned.pollLast();
+        if (id == null) {
+            return create(session);
+        }
+        recipeIds.remove(id);
+        return new Result(Operation.DELETE, ok(send(authorized(session, "/recipes/" + id).DELETE().build())));
+    }
+
+    private void added(long id, String username) {
+        recipeIds.add(id);
+        Session owner = sessionsByName.get(username);
+        if (owner != null) {
+            owner.owned.addFirst(id);
+        }
+    }
+
+    private HttpRequest.Builder authorized(Session session, String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + session.token);
+    }
+
+    private HttpRequest json(String path, Map<String, String> body) throws IOException {
+        return HttpRequest.newBuilder(uri(path)).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body))).build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static boolean ok(HttpResponse<?> response) {
+        return response.statusCode() < 400;
+    }
+
+    private static List<String> ingredients(long seed) {
+        List<String> ingredients = new ArrayList<>(INGREDIENTS);
+        Collections.shuffle(ingredients, new Random(seed));
+        return ingredients.subList(0, 3 + (int) (seed % 5));
+    }
+
+    private byte[] recipeForm(String title, byte[] image) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        Map<String, String> fields = new HashMap<>();
+        fields.put("title", title);
+        fields.put("difficulty", "easy");
+        fields.put("instructions", "Mix and bake.");
+        fields.put("ingredients", objectMapper.writeValueAsString(ingredients(uploads.get())));
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + field.getKey() + "\"\r\n\r\n"
+                    + field.getValue() + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+        if (image != null) {
+            body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"image\"; filename=\"bake.jpg\"\r\n"
+                    + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            body.write(image);
+            body.write("\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+        body.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    // Decoders ignore bytes after the end-of-image marker, so a counter there makes every upload distinct content
+    private byte[] uniqueImage() {
+        return ByteBuffer.allocate(image.length + Long.BYTES).put(image).putLong(uploads.incrementAndGet()).array();
+    }
+
+    private static byte[] jpeg() throws IOException {
+        BufferedImage image = new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x * 31 + y * 17) & 0xFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    /** Ids with O(1) add, remove and random pick. */
+    private static final class RecipeIds {
+        private final List<Long> ids = new ArrayList<>();
+        private final Map<Long, Integer> positions = new HashMap<>();
+
+        synchronized void add(long id) {
+            if (positions.putIfAbsent(id, ids.size()) == null) {
+                ids.add(id);
+            }
+        }
+
+        synchronized void remove(long id) {
+            Integer position = positions.remove(id);
+            if (position == null) {
+                return;
+            }
+            Long last = ids.remove(ids.size() - 1);
+            if (position < ids.size()) {
+                ids.set(position, last);
+                positions.put(last, position);
+            }
+        }
+
+        synchronized Long random() {
+            return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+
+        synchronized int size() {
+            return ids.size();
+        }
+    }
+}
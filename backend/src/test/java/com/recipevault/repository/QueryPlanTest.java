@@ -0,0 +1,150 @@
+package com.recipevault.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.recipevault.dto.RecipePageDTO;
+import com.recipevault.dto.RecipeRequestDTO;
+import com.recipevault.dto.RecipeResponseDTO;
+import com.recipevault.model.UserInfo;
+import com.recipevault.service.RecipeService;
+import com.recipevault.util.SqlStatements;
+
+/**
+ * Checks the indexes from the V8 migration are the ones the listing queries
+ * run on. Each test records the SQL Hibernate generates, inlines the values
+ * the way MySQL Connector/J sends them (so {@code ? IS NULL OR ...} filters
+ * fold away as they do there) and asserts on the plan H2's EXPLAIN gives.
+ * <p>
+ * InnoDB drops the index it made for a foreign key once V8 adds one starting
+ * with the same column, but H2 keeps a one-column index behind every foreign
+ * key and prefers it. So this context's database loses the two foreign keys
+ * V8 covers, leaving H2 the same indexes to choose from as MySQL.
+ */
+@SpringBootTest(properties = "cache.second-level.enabled=false")
+@ActiveProfiles("test")
+class QueryPlanTest {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long chefId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate.execute("ALTER TABLE recipes DROP CONSTRAINT IF EXISTS FKlc3x6yty3xsupx80hqbj9ayos");
+        jdbcTemplate.execute("ALTER TABLE recipe_ingredients DROP CONSTRAINT IF EXISTS FKcqlw8sor5ut10xsuj3jnttkc");
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        chefId = userRepository.save(new UserInfo(null, "chef", "Chef", "hash", null)).getId();
+        userRepository.save(new UserInfo(null, "cook", "Cook", "hash", null));
+        for (int i = 0; i < 6; i++) {
+            recipeService.createRecipe(i % 2 == 0 ? "chef" : "cook", request("Soup " + i, i % 3 == 0 ? "EASY" : "HARD"));
+        }
+    }
+
+    @Test
+    void listingWalksTheCreatedDateIndex() {
+        RecipePageDTO first = recipeService.getAllRecipes(null, null, null, null, 2);
+        String sql = recipesQuery(() -> recipeService.getAllRecipes(null, null, null, first.getNextCursor(), 2));
+        RecipeResponseDTO last = first.getItems().get(1);
+
+        String plan = explain(sql, null, null, null, null, null, null,
+                last.getCreatedDate(), last.getCreatedDate(), last.getCreatedDate(), last.getId(), 3);
+        assertThat(plan).contains("idx_recipes_created").contains("index sorted");
+    }
+
+    @Test
+    void difficultyFilterUsesTheDifficultyIndex() {
+        String sql = recipesQuery(() -> recipeService.getAllRecipes(null, "EASY", null, null, 20));
+
+        String plan = explain(sql, null, null, "EASY", "EASY", null, null, null, null, null, null, 21);
+        assertThat(plan).contains("idx_recipes_difficulty_created: difficulty =");
+    }
+
+    @Test
+    void ownRecipesUseTheUserIndex() {
+        String sql = recipesQuery(() -> recipeService.getRecipesByUser("chef", null, 20));
+
+        String plan = explain(sql, chefId, null, null, null, null, 21);
+        assertThat(plan).contains("idx_recipes_user_created: user_id =");
+    }
+
+    @Test
+    void ingredientBatchUsesTheRecipeIndex() {
+        RecipePageDTO page = recipeService.getAllRecipes(null, null, null, null, 20);
+        String sql = recorded(() -> recipeService.getAllRecipes(null, null, null, null, 20)).stream()
+                .filter(statement -> statement.contains("from recipe_ingredients"))
+                .findFirst().orElseThrow();
+        String ids = page.getItems().stream().map(recipe -> recipe.getId().toString()).collect(Collectors.joining(","));
+
+        String plan = explain(sql.replace("(?, ...)", "(" + ids + ")"));
+        assertThat(plan).contains("idx_recipe_ingredients_recipe: recipe_id IN");
+    }
+
+    private String recipesQuery(Supplier<?> call) {
+        return recorded(call).stream().filter(statement -> statement.contains("from recipes")).findFirst().orElseThrow();
+    }
+
+    private static List<String> recorded(Supplier<?> call) {
+        SqlStatements.Recording recording = SqlStatements.start();
+        try {
+            call.get();
+        } finally {
+            SqlStatements.stop();
+        }
+        return recording.shapes().stream().map(SqlStatements.Shape::sql).toList();
+    }
+
+    // EXPLAIN of the statement with each placeholder replaced, in order, by the literal for one value
+    private String explain(String sql, Object... values) {
+        String[] parts = sql.split("\\?", -1);
+        assertThat(parts).as("placeholders in %s", sql).hasSize(values.length + 1);
+        StringBuilder inlined = new StringBuilder(parts[0]);
+        for (int i = 0; i < values.length; i++) {
+            inlined.append(literal(values[i])).append(parts[i + 1]);
+        }
+        return jdbcTemplate.queryForObject("EXPLAIN " + inlined, String.class);
+    }
+
+    private static String literal(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof LocalDateTime time) {
+            return "TIMESTAMP '" + TIMESTAMP.format(time) + "'";
+        }
+        return value instanceof Number ? value.toString() : "'" + value + "'";
+    }
+
+    private static RecipeRequestDTO request(String title, String difficulty) {
+        RecipeRequestDTO dto = new RecipeRequestDTO();
+        dto.setTitle(title);
+        dto.setDifficulty(difficulty);
+        dto.setInstructions("Simmer.");
+        dto.setIngredients(List.of("stock", "onion"));
+        return dto;
+    }
+}
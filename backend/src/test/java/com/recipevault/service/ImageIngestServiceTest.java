@@ -0,0 +1,254 @@
+package com.recipevault.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.recipevault.exception.InvalidImageException;
+import com.recipevault.model.ImageBlob;
+import com.recipevault.repository.ImageBlobRepository;
+import com.recipevault.storage.ImageLocks;
+import com.recipevault.storage.LocalImageStore;
+
+class ImageIngestServiceTest {
+    private static final byte[] JPEG_HEADER = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F', 'I', 'F', 0, 1};
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageBlobRepository blobRepository;
+    private ImageIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        blobRepository = mock(ImageBlobRepository.class);
+        service = new ImageIngestService(uploadDir.toString(), DataSize.ofMegabytes(256),
+                List.of("image/jpeg", "image/png", "image/gif", "image/webp"),
+                new LocalImageStore(uploadDir.toString()), blobRepository, new ImageLocks());
+    }
+
+    @Test
+    void storesImageUnderShardedContentAddressedKey() throws IOException {
+        ImageIngestService.StoredImage stored = service.store(new StreamingImage("../../evil name.jpg", JPEG_HEADER, 100_000));
+
+        String hash = stored.sha256();
+        assertThat(hash).hasSize(64);
+        assertThat(stored.key()).isEqualTo(hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".jpg");
+        assertThat(stored.url()).isEqualTo("/uploads/" + stored.key());
+        assertThat(stored.contentType()).isEqualTo("image/jpeg");
+        assertThat(Files.size(uploadDir.resolve(stored.key()))).isEqualTo(100_000);
+        assertThat(uploadDir.resolve(".staging").toFile().list()).isEmpty(); // no temp file left behind
+        verify(blobRepository).saveAndFlush(any(ImageBlob.class));
+    }
+
+    @Test
+    void identicalUploadsShareOneBlob() throws IOException {
+        when(blobRepository.incrementRefCount(anyString())).thenReturn(0, 1);
+
+        ImageIngestService.StoredImage first = service.store(new StreamingImage("a.jpg", JPEG_HEADER, 50_000));
+        ImageIngestService.StoredImage second = service.store(new StreamingImage("b.jpg", JPEG_HEADER, 50_000));
+
+        assertThat(second.url()).isEqualTo(first.url());
+        verify(blobRepository).saveAndFlush(any(ImageBlob.class)); // only the first upload registered a blob
+        try (var files = Files.walk(uploadDir)) {
+            assertThat(files.filter(Files::isRegularFile)).containsExactly(uploadDir.resolve(first.key()));
+        }
+    }
+
+    @Test
+    void releaseDeletesTheBlobOnlyWhenTheLastReferenceGoes() throws IOException {
+        ImageIngestService.StoredImage stored = service.store(new StreamingImage("a.jpg", JPEG_HEADER, 10_000));
+        ImageBlob blob = new ImageBlob(stored.sha256(), stored.key(), stored.contentType(), stored.size());
+        when(blobRepository.findByStorageKey(stored.key())).thenReturn(Optional.of(blob));
+
+        when(blobRepository.deleteIfUnreferenced(stored.sha256())).thenReturn(0);
+        service.release(stored.url());
+        assertThat(uploadDir.resolve(stored.key())).exists();
+
+        when(blobRepository.deleteIfUnreferenced(stored.sha256())).thenReturn(1);
+        service.release(stored.url());
+        assertThat(uploadDir.resolve(stored.key())).doesNotExist();
+    }
+
+    @Test
+    void anUploadRacingTheLastReleaseKeepsItsFile() throws Exception {
+        ImageIngestService.StoredImage stored = service.store(new StreamingImage("a.jpg", JPEG_HEADER, 10_000));
+        when(blobRepository.findByStorageKey(stored.key()))
+                .thenReturn(Optional.of(new ImageBlob(stored.sha256(), stored.key(), stored.contentType(), stored.size())));
+        Thread upload = new Thread(() -> {
+            try {
+                service.store(new StreamingImage("b.jpg", JPEG_HEADER, 10_000));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        // The identical upload finds no blob while the last release is between dropping the row and the file
+        when(blobRepository.deleteIfUnreferenced(stored.sha256())).thenAnswer(invocation -> {
+            upload.start();
+            upload.join(500);
+            return 1;
+        });
+
+        service.release(stored.url());
+        upload.join();
+
+        assertThat(uploadDir.resolve(stored.key())).exists();
+    }
+
+    @Test
+    void releaseDeletesLegacyUploadsThatHaveNoBlobRow() throws IOException {
+        Path legacy = Files.write(uploadDir.resolve("1700000000-photo.jpg"), JPEG_HEADER);
+
+        service.release("/uploads/1700000000-photo.jpg");
+
+        assertThat(legacy).doesNotExist();
+        verify(blobRepository, never()).decrementRefCount(anyString());
+    }
+
+    @Test
+    void rejectsContentThatIsNotAnImage() {
+        StreamingImage script = new StreamingImage("photo.jpg", "<?php echo 1; ?>".getBytes(), 1_000);
+
+        assertThatThrownBy(() -> service.store(script))
+                .isInstanceOfSatisfying(InvalidImageException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+        assertThat(uploadDir.resolve(".staging").toFile().list()).isEmpty();
+    }
+
+    @Test
+    void rejectsImagesOverTheLimitEvenWhenTheDeclaredSizeLies() {
+        ImageIngestService small = new ImageIngestService(uploadDir.toString(), DataSize.ofKilobytes(64), List.of("image/jpeg"),
+                new LocalImageStore(uploadDir.toString()), blobRepository, new ImageLocks());
+        StreamingImage understated = new StreamingImage("big.jpg", JPEG_HEADER, 1_000_000) {
+            @Override
+            public long getSize() {
+                return 10;
+            }
+        };
+
+        assertThatThrownBy(() -> small.store(understated))
+                .isInstanceOfSatisfying(InvalidImageException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+        assertThat(uploadDir.resolve(".staging").toFile().list()).isEmpty();
+    }
+
+    @Test
+    void heapAllocationDoesNotGrowWithImageSize() throws IOException {
+        // Warm up so class loading and JIT do not count against the first measurement
+        service.store(new StreamingImage("warmup.jpg", JPEG_HEADER, 4_000_000));
+
+        long small = allocatedWhileStoring(1_000_000);
+        long large = allocatedWhileStoring(128_000_000);
+
+        // A buffering implementation would allocate at least the 127 MB difference; allow a few MB of noise
+        assertThat(large).isLessThan(4_000_000);
+        assertThat(large - small).isLessThan(4_000_000);
+    }
+
+    private long allocatedWhileStoring(int size) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        StreamingImage image = new StreamingImage("photo.jpg", JPEG_HEADER, size);
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        service.store(image);
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    /** A multipart part whose bytes are generated on the fly, so the test itself holds nothing on the heap. */
+    private static class StreamingImage implements MultipartFile {
+        private final String filename;
+        private final byte[] header;
+        private final long size;
+
+        StreamingImage(String filename, byte[] header, long size) {
+            this.filename = filename;
+            this.header = header;
+            this.size = size;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new InputStream() {
+                private long position;
+
+                @Override
+                public int read() {
+                    if (position >= size) {
+                        return -1;
+                    }
+                    int value = position < header.length ? header[(int) position] & 0xFF : (int) (position % 251);
+                    position++;
+                    return value;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (position >= size) {
+                        return -1;
+                    }
+                    int n = (int) Math.min(len, size - position);
+                    for (int i = 0; i < n; i++) {
+                        b[off + i] = (byte) read();
+                    }
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public String getName() {
+            return "image";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return filename;
+        }
+
+        @Override
+        public String getContentType() {
+            return "image/jpeg";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("Uploads must be streamed");
+        }
+
+        @Override
+        public void transferTo(File dest) {
+            throw new UnsupportedOperationException("Uploads must be streamed");
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.recipevault.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.storage.LocalImageStore;
+
+class ImageVariantServiceTest {
+    private static final String KEY = "ab/cd/abcdef.png";
+
+    @TempDir
+    Path uploadDir;
+
+    private RecipeRepository recipeRepository;
+    private ImageVariantService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        recipeRepository = mock(RecipeRepository.class);
+        service = new ImageVariantService(new LocalImageStore(uploadDir.toString()), recipeRepository, new RecipeVersions(),
+                uploadDir.toString(), 1, 4, false);
+
+        // A transparent PNG larger than both variants
+        BufferedImage original = new BufferedImage(3000, 1500, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = original.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, 1500, 1500);
+        g.dispose();
+        Files.createDirectories(uploadDir.resolve("ab/cd"));
+        ImageIO.write(original, "png", uploadDir.resolve(KEY).toFile());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void generatesScaledJpegVariantsAndPointsRecipesAtThem() throws IOException {
+        service.generate("/uploads/" + KEY);
+
+        BufferedImage card = ImageIO.read(uploadDir.resolve("ab/cd/abcdef-card.jpg").toFile());
+        BufferedImage detail = ImageIO.read(uploadDir.resolve("ab/cd/abcdef-detail.jpg").toFile());
+        assertThat(card.getWidth()).isEqualTo(640);
+        assertThat(card.getHeight()).isEqualTo(320);
+        assertThat(detail.getWidth()).isEqualTo(1280);
+        assertThat(detail.getHeight()).isEqualTo(640);
+        // Transparent pixels are flattened onto white rather than black
+        assertThat(new Color(card.getRGB(600, 160)).getGreen()).isGreaterThan(240);
+        verify(recipeRepository).setImageVariants("/uploads/" + KEY,
+                "/uploads/ab/cd/abcdef-card.jpg", "/uploads/ab/cd/abcdef-detail.jpg");
+    }
+
+    @Test
+    void enqueuedJobsRunInTheBackgroundAndAreCounted() {
+        service.enqueue("/uploads/" + KEY);
+
+        verify(recipeRepository, timeout(10_000)).setImageVariants(anyString(), anyString(), anyString());
+        ImageVariantService.Stats stats = service.stats();
+        assertThat(stats.completed() + stats.failed()).isLessThanOrEqualTo(1);
+        assertThat(stats.rejected()).isZero();
+    }
+
+    @Test
+    void smallImagesAreNotUpscaled() {
+        BufferedImage small = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage resized = ImageVariantService.resize(small, 640);
+
+        assertThat(resized.getWidth()).isEqualTo(200);
+        assertThat(resized.getHeight()).isEqualTo(100);
+    }
+}
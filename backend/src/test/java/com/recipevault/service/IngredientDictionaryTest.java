@@ -0,0 +1,107 @@
+package com.recipevault.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.recipevault.dto.RecipeRequestDTO;
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.repository.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IngredientDictionaryTest {
+
+    @Autowired
+    private IngredientDictionary dictionary;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        userRepository.save(new UserInfo(null, "cook", "Cook", "hash", null));
+    }
+
+    @Test
+    void spellingsOfOneIngredientShareAnIdAndKeepTheirQuantityAndWording() {
+        List<IngredientDictionary.Resolved> resolved = dictionary.resolveAll(List.of("Quail Eggs", "quail egg", "2 quail eggs"));
+
+        assertThat(resolved).extracting(line -> line.ingredient().getId()).containsOnly(resolved.get(0).ingredient().getId());
+        assertThat(resolved).extracting(IngredientDictionary.Resolved::quantity).containsExactly(null, null, "2");
+        assertThat(resolved).extracting(IngredientDictionary.Resolved::name).containsExactly("Quail Eggs", "quail egg", "quail eggs");
+        assertThat(dictionary.get(resolved.get(0).ingredient().getId()).getName()).isEqualTo("Quail Eggs");
+    }
+
+    @Test
+    void eachRecipeShowsItsOwnWordingOfASharedIngredient() throws Exception {
+        recipeService.createRecipe("cook", request("2 cups Plain Flour", "3 eggs"));
+        Recipe second = recipeService.createRecipe("cook", request("plain flour", "2 Free-Range Eggs"));
+
+        assertThat(recipeRepository.findWithIngredientsById(second.getId()).orElseThrow().getIngredients())
+                .extracting(Ingredient::getIngredientName).containsExactly("plain flour", "2 Free-Range Eggs");
+    }
+
+    @Test
+    void updateOnlyWritesTheIngredientLinesThatChanged() throws Exception {
+        Recipe recipe = recipeService.createRecipe("cook", request("2 cups flour", "3 eggs", "milk"));
+
+        statistics().clear();
+        recipeService.updateRecipe("cook", recipe.getId(), request("2 cups flour", "3 eggs", "milk"), false);
+
+        EntityStatistics ingredientWrites = ingredientStatistics();
+        assertThat(ingredientWrites.getInsertCount() + ingredientWrites.getUpdateCount() + ingredientWrites.getDeleteCount()).isZero();
+
+        statistics().clear();
+        Recipe updated = recipeService.updateRecipe("cook", recipe.getId(), request("2 cups flour", "4 eggs", "milk"), false);
+
+        ingredientWrites = ingredientStatistics();
+        assertThat(ingredientWrites.getInsertCount()).isEqualTo(1);
+        assertThat(ingredientWrites.getDeleteCount()).isEqualTo(1);
+        assertThat(ingredientWrites.getUpdateCount()).isZero();
+        assertThat(updated.getIngredients()).extracting(Ingredient::getIngredientName)
+                .containsExactly("2 cups flour", "4 eggs", "milk");
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private EntityStatistics ingredientStatistics() {
+        return statistics().getEntityStatistics(Ingredient.class.getName());
+    }
+
+    private static RecipeRequestDTO request(String... ingredients) {
+        RecipeRequestDTO request = new RecipeRequestDTO();
+        request.setTitle("Pancakes");
+        request.setDifficulty("easy");
+        request.setInstructions("Whisk and fry.");
+        request.setIngredients(List.of(ingredients));
+        return request;
+    }
+}
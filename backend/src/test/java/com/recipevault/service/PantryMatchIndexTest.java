@@ -0,0 +1,99 @@
+package com.recipevault.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.recipevault.model.CanonicalIngredient;
+import com.recipevault.model.Difficulty;
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.util.IngredientNormalizer;
+import com.recipevault.util.IngredientNormalizer.ParsedLine;
+
+class PantryMatchIndexTest {
+
+    private PantryMatchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PantryMatchIndex(null, null);
+        index.index(recipe(1L, "Spaghetti", "Guanciale", "Egg", "Parmigiano Reggiano"));
+        index.index(recipe(2L, "Eggs", "Butter", "Chives"));
+        index.index(recipe(3L, "Overnight Rice", "Kampung Eggs", "Spring Onion"));
+        index.index(recipe(4L, "Flour", "Eggs", "Milk"));
+    }
+
+    @Test
+    void normalizerDropsQuantitiesAndUnits() {
+        assertThat(IngredientNormalizer.normalize("2 Eggs")).isEqualTo("egg");
+        assertThat(IngredientNormalizer.normalize("3 cups of plain flour")).isEqualTo("plain flour");
+    }
+
+    @Test
+    void subsetQueryReturnsOnlyFullyCoveredRecipes() {
+        List<PantryMatchIndex.Match> matches = index.match(List.of("eggs", "butter", "chives", "milk", "flour"), 0, 10);
+
+        assertThat(matches).extracting(PantryMatchIndex.Match::recipeId).containsExactlyInAnyOrder(2L, 4L);
+        assertThat(matches).allSatisfy(m -> assertThat(m.missing()).isZero());
+    }
+
+    @Test
+    void nearMatchesAreRankedByCoverage() {
+        List<PantryMatchIndex.Match> matches = index.match(List.of("egg", "flour", "rice"), 2, 10);
+
+        // 4: 2/3, 3: 2/3 via the "kampung egg" head word, 2: 1/3, 1: 1/4 is missing 3 and excluded
+        assertThat(matches).extracting(PantryMatchIndex.Match::recipeId).containsExactly(4L, 3L, 2L);
+        assertThat(matches.get(0).matched()).isEqualTo(2);
+        assertThat(matches.get(2).missing()).isEqualTo(2);
+    }
+
+    @Test
+    void updatesAndRemovalsAreReflected() {
+        index.index(recipe(2L, "Eggs", "Butter"));
+        assertThat(index.match(List.of("eggs", "butter"), 0, 10))
+                .extracting(PantryMatchIndex.Match::recipeId).containsExactly(2L);
+
+        index.remove(2L);
+        assertThat(index.match(List.of("eggs", "butter"), 0, 10)).isEmpty();
+    }
+
+    @Test
+    void recipeIdsBeyondTheIntRangeAreIndexed() {
+        long big = 5_000_000_000L;
+        index.index(recipe(big, "Eggs", "Butter"));
+        index.remove(4L);
+        index.index(recipe(big + 1, "Flour", "Milk")); // reuses the slot recipe 4 left
+
+        assertThat(index.match(List.of("eggs", "butter", "flour", "milk"), 0, 10))
+                .extracting(PantryMatchIndex.Match::recipeId).containsExactlyInAnyOrder(big, big + 1);
+    }
+
+    @Test
+    void coversUsesTheSameRuleAsTheIndex() {
+        var pantry = PantryMatchIndex.normalizeAll(List.of("eggs", "free range milk"));
+
+        assertThat(PantryMatchIndex.covers(pantry, "Kampung Eggs")).isTrue();
+        assertThat(PantryMatchIndex.covers(pantry, "Milk")).isTrue();
+        assertThat(PantryMatchIndex.covers(pantry, "Flour")).isFalse();
+    }
+
+    private static Recipe recipe(Long id, String... ingredientNames) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setTitle("Recipe " + id);
+        recipe.setDifficulty(Difficulty.EASY);
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (String name : ingredientNames) {
+            ParsedLine line = IngredientNormalizer.parse(name);
+            CanonicalIngredient ingredient = new CanonicalIngredient(line.key(), line.name());
+            ingredients.add(new Ingredient(recipe, ingredients.size(), ingredient, line.quantity(), line.name()));
+        }
+        recipe.setIngredients(ingredients);
+        return recipe;
+    }
+}
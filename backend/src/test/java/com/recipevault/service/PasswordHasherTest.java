@@ -0,0 +1,110 @@
+package com.recipevault.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import com.recipevault.exception.ServiceBusyException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHasherTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SimpleMeterRegistry registry;
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void oneAccountCannotTakeMoreThanItsShare() throws Exception {
+        hasher = hasher(4, 2, 8);
+        CountDownLatch started = new CountDownLatch(2);
+        hold("gordon", "10.0.0.1", started);
+        hold("gordon", "10.0.0.2", started);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> hasher.verify("password123", "hash", "gordon", "10.0.0.3"))
+                .isInstanceOfSatisfying(ServiceBusyException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThat(hasher.encode("password123", "jamie", "10.0.0.3")).startsWith("$2a$04$");
+    }
+
+    @Test
+    void oneClientCannotTakeMoreThanItsShare() throws Exception {
+        hasher = hasher(4, 8, 2);
+        CountDownLatch started = new CountDownLatch(2);
+        hold("gordon", "10.0.0.1", started);
+        hold("jamie", "10.0.0.1", started);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> hasher.encode("password123", "roger", "10.0.0.1"))
+                .isInstanceOf(ServiceBusyException.class);
+        assertThat(hasher.encode("password123", "roger", "10.0.0.2")).isNotBlank();
+    }
+
+    @Test
+    void aFullQueueIsRefusedAtOnce() throws Exception {
+        hasher = hasher(4, 1, 1, 8, 8);
+        CountDownLatch started = new CountDownLatch(1);
+        hold("gordon", "10.0.0.1", started); // running
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        hold("jamie", "10.0.0.2", new CountDownLatch(1)); // queued
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("auth.password.queue.depth").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        long begin = System.nanoTime();
+        assertThatThrownBy(() -> hasher.encode("password123", "roger", "10.0.0.3"))
+                .isInstanceOf(ServiceBusyException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin)).isLessThan(1000);
+    }
+
+    @Test
+    void aChangedCostIsAppliedAtTheNextMatchingLogin() {
+        String oldHash = hasher(4, 8, 8).encode("password123");
+        hasher.shutdown();
+        hasher = hasher(5, 1, 8, 8, 8);
+
+        PasswordHasher.Verification wrong = hasher.verify("wrong", oldHash, "gordon", "10.0.0.1");
+        PasswordHasher.Verification right = hasher.verify("password123", oldHash, "gordon", "10.0.0.1");
+
+        assertThat(wrong.matches()).isFalse();
+        assertThat(wrong.upgradedHash()).isNull();
+        assertThat(right.matches()).isTrue();
+        assertThat(right.upgradedHash()).startsWith("$2a$05$");
+        assertThat(hasher.verify("password123", right.upgradedHash(), "gordon", "10.0.0.1").upgradedHash()).isNull();
+    }
+
+    private PasswordHasher hasher(int threads, int maxPerUser, int maxPerClient) {
+        return hasher(4, threads, 8, maxPerUser, maxPerClient);
+    }
+
+    // Each hasher gets a registry of its own, so its gauges are never registered twice
+    private PasswordHasher hasher(int strength, int threads, int queueCapacity, int maxPerUser, int maxPerClient) {
+        registry = new SimpleMeterRegistry();
+        hasher = new PasswordHasher(strength, threads, queueCapacity, maxPerUser, maxPerClient, registry);
+        return hasher;
+    }
+
+    // Occupies a hashing slot for the user and client until the test ends
+    private void hold(String username, String clientAddress, CountDownLatch started) {
+        CompletableFuture.runAsync(() -> hasher.submit(username, clientAddress, () -> {
+            started.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        }));
+    }
+}
@@ -0,0 +1,116 @@
+package com.recipevault.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.recipevault.model.CanonicalIngredient;
+import com.recipevault.model.Difficulty;
+import com.recipevault.model.Ingredient;
+import com.recipevault.model.Recipe;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.util.IngredientNormalizer;
+import com.recipevault.util.IngredientNormalizer.ParsedLine;
+import com.recipevault.util.TextAnalyzer;
+
+import jakarta.persistence.EntityManager;
+
+class RecipeSearchIndexTest {
+
+    private RecipeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RecipeSearchIndex(null, null);
+        index.index(recipe(1L, "Carbonara", "Boil the pasta until al dente.", "Spaghetti", "Guanciale", "Egg"));
+        index.index(recipe(2L, "Creamy Scrambled Eggs", "Crack the eggs into a saucepan.", "Eggs", "Butter", "Chives"));
+        index.index(recipe(3L, "Pepperoni Pizza", "Spread the tomato sauce and bake.", "Flour", "Tomatoes", "Cheese"));
+    }
+
+    @Test
+    void analyzerFoldsCaseAccentsAndInflections() {
+        assertThat(TextAnalyzer.analyze("Sautéed TOMATOES, and eggs"))
+                .containsExactly("sautee", "tomato", "egg");
+        assertThat(TextAnalyzer.analyze("chopped")).isEqualTo(TextAnalyzer.analyze("chopping"));
+        assertThat(TextAnalyzer.analyze("eggs egg egged")).containsExactly("egg", "egg", "egg");
+        assertThat(TextAnalyzer.analyze("add added")).containsExactly("add", "add");
+    }
+
+    @Test
+    void ranksDocumentsWithMoreMatchesHigher() {
+        List<RecipeSearchIndex.Hit> hits = index.search("egg", 10);
+
+        assertThat(hits).extracting(RecipeSearchIndex.Hit::recipeId).containsExactly(2L, 1L);
+        assertThat(hits.get(0).score()).isGreaterThan(hits.get(1).score());
+    }
+
+    @Test
+    void matchesInstructionsAndIngredients() {
+        assertThat(index.search("saucepan", 10)).extracting(RecipeSearchIndex.Hit::recipeId).containsExactly(2L);
+        assertThat(index.search("tomato", 10)).extracting(RecipeSearchIndex.Hit::recipeId).containsExactly(3L);
+    }
+
+    @Test
+    void updatesAndRemovalsAreIncremental() {
+        index.index(recipe(3L, "Margherita", "Bake in a hot oven.", "Flour", "Basil"));
+        assertThat(index.search("pepperoni", 10)).isEmpty();
+        assertThat(index.search("basil", 10)).extracting(RecipeSearchIndex.Hit::recipeId).containsExactly(3L);
+
+        index.remove(1L);
+        assertThat(index.search("carbonara", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void limitKeepsOnlyTopHits() {
+        assertThat(index.search("egg tomato pasta", 1)).hasSize(1);
+        assertThat(index.search("the and", 10)).isEmpty();
+    }
+
+    @Test
+    void writesDuringARebuildAreNotLost() throws Exception {
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        RecipeSearchIndex rebuilt = new RecipeSearchIndex(recipeRepository, mock(EntityManager.class));
+        Recipe saved = recipe(4L, "Shakshuka", "Poach the eggs in the sauce.", "Eggs", "Tomatoes");
+        Thread writer = new Thread(() -> rebuilt.index(saved));
+        when(recipeRepository.findPage(isNull(), isNull(), isNull(), isNull(), isNull(), any()))
+                .thenAnswer(invocation -> {
+                    // A recipe saved while the table is being read, after the page that would have held it
+                    writer.start();
+                    writer.join(200);
+                    return List.of(recipe(1L, "Carbonara", "Boil the pasta.", "Spaghetti"));
+                });
+        when(recipeRepository.findPage(isNull(), isNull(), isNull(), any(), eq(1L), any())).thenReturn(List.of());
+
+        rebuilt.rebuild();
+        writer.join();
+
+        assertThat(rebuilt.size()).isEqualTo(2);
+        assertThat(rebuilt.search("shakshuka", 10)).extracting(RecipeSearchIndex.Hit::recipeId).containsExactly(4L);
+    }
+
+    private static Recipe recipe(Long id, String title, String instructions, String... ingredientNames) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setTitle(title);
+        recipe.setDifficulty(Difficulty.EASY);
+        recipe.setInstructions(instructions);
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (String name : ingredientNames) {
+            ParsedLine line = IngredientNormalizer.parse(name);
+            CanonicalIngredient ingredient = new CanonicalIngredient(line.key(), line.name());
+            ingredients.add(new Ingredient(recipe, ingredients.size(), ingredient, line.quantity(), line.name()));
+        }
+        recipe.setIngredients(ingredients);
+        return recipe;
+    }
+}
@@ -0,0 +1,160 @@
+package com.recipevault.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.recipevault.repository.ImageBlobRepository;
+import com.recipevault.repository.RecipeRepository;
+import com.recipevault.storage.ImageLocks;
+
+class UploadGarbageCollectorTest {
+    private static final Instant LONG_AGO = Instant.now().minus(Duration.ofDays(30));
+
+    @TempDir
+    Path uploadDir;
+
+    private RecipeRepository recipeRepository;
+    private ImageBlobRepository blobRepository;
+    private UploadGarbageCollector collector;
+
+    private record Refs(Long id, String imageUrl, String cardImageUrl, String detailImageUrl) implements RecipeRepository.ImageRefs {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getImageUrl() {
+            return imageUrl;
+        }
+
+        @Override
+        public String getCardImageUrl() {
+            return cardImageUrl;
+        }
+
+        @Override
+        public String getDetailImageUrl() {
+            return detailImageUrl;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository = mock(RecipeRepository.class);
+        blobRepository = mock(ImageBlobRepository.class);
+        collector = new UploadGarbageCollector(uploadDir.toString(), recipeRepository, blobRepository, new ImageLocks(),
+                Duration.ofDays(1), Duration.ofDays(7), 0, List.of("placeholder.jpg"));
+        referencedBy(new Refs(1L, "/uploads/ab/cd/live.jpg", "/uploads/ab/cd/live-card.jpg", null));
+    }
+
+    @Test
+    void quarantinesOldUnreferencedFilesAndKeepsEverythingElse() throws IOException {
+        Path live = file("ab/cd/live.jpg", 10, LONG_AGO);
+        Path liveCard = file("ab/cd/live-card.jpg", 10, LONG_AGO);
+        Path orphan = file("ab/cd/orphan.jpg", 100, LONG_AGO);
+        Path fresh = file("ab/cd/fresh.jpg", 10, Instant.now());
+        Path placeholder = file("placeholder.jpg", 10, LONG_AGO);
+
+        UploadGarbageCollector.Report report = collector.collect();
+
+        assertThat(live).exists();
+        assertThat(liveCard).exists();
+        assertThat(fresh).exists(); // still inside the grace period
+        assertThat(placeholder).exists();
+        assertThat(orphan).doesNotExist();
+        assertThat(uploadDir.resolve(".quarantine/ab/cd/orphan.jpg")).exists();
+        assertThat(report.quarantinedFiles()).isEqualTo(1);
+        assertThat(report.quarantinedBytes()).isEqualTo(100);
+        assertThat(report.deletedFiles()).isZero();
+        verify(blobRepository).deleteByStorageKey("ab/cd/orphan.jpg");
+    }
+
+    @Test
+    void keepsBlobsThatStillHaveReferencesBeforeAnyRecipeShowsThem() throws IOException {
+        // An upload whose recipe is still being saved, or whose recipe failed to save and has yet to release it
+        Path held = file("ab/cd/held.jpg", 10, LONG_AGO);
+        when(blobRepository.findReferencedStorageKeys(anyCollection()))
+                .thenAnswer(invocation -> invocation.<java.util.Collection<String>>getArgument(0).contains("ab/cd/held.jpg")
+                        ? List.of("ab/cd/held.jpg") : List.of());
+
+        UploadGarbageCollector.Report report = collector.collect();
+
+        assertThat(held).exists();
+        assertThat(report.quarantinedFiles()).isZero();
+        verify(blobRepository, never()).deleteByStorageKey(any());
+    }
+
+    @Test
+    void deletesQuarantinedFilesOnceTheQuarantinePeriodHasPassed() throws IOException {
+        Path expired = file(".quarantine/ab/cd/expired.jpg", 250, LONG_AGO);
+        Path recent = file(".quarantine/ab/cd/recent.jpg", 10, Instant.now().minus(Duration.ofDays(1)));
+
+        UploadGarbageCollector.Report report = collector.collect();
+
+        assertThat(expired).doesNotExist();
+        assertThat(recent).exists();
+        assertThat(report.deletedFiles()).isEqualTo(1);
+        assertThat(report.reclaimedBytes()).isEqualTo(250);
+    }
+
+    @Test
+    void restoresQuarantinedFilesThatAreReferencedAgain() throws IOException {
+        file(".quarantine/ab/cd/live.jpg", 10, LONG_AGO);
+
+        UploadGarbageCollector.Report report = collector.collect();
+
+        assertThat(uploadDir.resolve("ab/cd/live.jpg")).exists();
+        assertThat(report.restoredFiles()).isEqualTo(1);
+        assertThat(report.deletedFiles()).isZero();
+    }
+
+    @Test
+    void removesAbandonedStagingFiles() throws IOException {
+        Path abandoned = file(".staging/upload-1.tmp", 40, LONG_AGO);
+        Path inFlight = file(".staging/upload-2.tmp", 40, Instant.now());
+
+        UploadGarbageCollector.Report report = collector.collect();
+
+        assertThat(abandoned).doesNotExist();
+        assertThat(inFlight).exists();
+        assertThat(report.reclaimedBytes()).isEqualTo(40);
+    }
+
+    private void referencedBy(Refs refs) {
+        when(recipeRepository.countWithImage()).thenReturn(1L);
+        when(recipeRepository.findImageRefsAfter(eq(0L), any())).thenReturn(List.of(refs));
+        // The exact check only answers for URLs the recipe actually uses
+        when(recipeRepository.findImageRefsByUrlIn(anyCollection())).thenAnswer(invocation -> {
+            var urls = invocation.<java.util.Collection<String>>getArgument(0);
+            boolean hit = urls.contains(refs.imageUrl()) || urls.contains(refs.cardImageUrl());
+            return hit ? List.of(refs) : List.of();
+        });
+    }
+
+    private Path file(String key, int size, Instant modified) throws IOException {
+        Path file = uploadDir.resolve(key);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+        return file;
+    }
+}
@@ -0,0 +1,90 @@
+package com.recipevault.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.recipevault.model.UserInfo;
+import com.recipevault.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserServiceTest {
+
+    private UserRepository userRepository;
+    private PasswordHasher passwordHasher;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        passwordHasher = new PasswordHasher(5, 1, 8, 2, 4, new SimpleMeterRegistry());
+        userService = new UserService(userRepository, passwordHasher, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        when(userRepository.findByUsername("gordon"))
+                .thenReturn(Optional.of(new UserInfo(1L, "gordon", "Gordon Ramsay", "hash", null)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void repeatedLookupsHitTheCache() {
+        userService.loadUserByUsername("gordon");
+        userService.loadUserByUsername("gordon");
+        userService.loadUserByUsername("gordon");
+
+        verify(userRepository, times(1)).findByUsername("gordon");
+        assertThat(userService.principalCacheStats().hitCount()).isEqualTo(2);
+        assertThat(userService.principalCacheStats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidationForcesReload() {
+        userService.loadUserByUsername("gordon");
+        userService.invalidatePrincipal("gordon");
+        userService.loadUserByUsername("gordon");
+
+        verify(userRepository, times(2)).findByUsername("gordon");
+    }
+
+    @Test
+    void registrationInvalidatesCachedPrincipal() {
+        when(userRepository.findByUsername("jamie")).thenReturn(Optional.empty());
+        when(userRepository.save(any(UserInfo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThatThrownBy(() -> userService.loadUserByUsername("jamie")).isInstanceOf(UsernameNotFoundException.class);
+        userService.registerUser("jamie", "Jamie Oliver", "password123", "10.0.0.1");
+
+        when(userRepository.findByUsername("jamie"))
+                .thenReturn(Optional.of(new UserInfo(2L, "jamie", "Jamie Oliver", "hash", null)));
+        assertThat(userService.loadUserByUsername("jamie").getUsername()).isEqualTo("jamie");
+    }
+
+    @Test
+    void loginRehashesAPasswordMadeAtAnotherCost() {
+        UserInfo roger = new UserInfo(3L, "roger", "Uncle Roger", new BCryptPasswordEncoder(4).encode("haiyaa"), null);
+        when(userRepository.findByUsername("roger")).thenReturn(Optional.of(roger));
+
+        assertThat(userService.authenticateUser("roger", "fuiyoh", "10.0.0.1")).isEmpty();
+        verify(userRepository, times(0)).save(any(UserInfo.class));
+
+        assertThat(userService.authenticateUser("roger", "haiyaa", "10.0.0.1")).isPresent();
+        verify(userRepository).save(roger);
+        assertThat(roger.getPassword()).startsWith("$2a$05$");
+    }
+}
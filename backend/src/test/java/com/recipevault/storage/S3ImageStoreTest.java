@@ -0,0 +1,157 @@
+package com.recipevault.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/** Runs the S3 backend against a minimal path-style S3 stand-in served from the JDK HTTP server. */
+class S3ImageStoreTest {
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final AtomicInteger puts = new AtomicInteger();
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private S3ImageStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        S3Client client = S3Client.builder()
+                .region(Region.AP_SOUTHEAST_2)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .responseChecksumValidation(ResponseChecksumValidation.WHEN_REQUIRED)
+                .endpointOverride(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                .forcePathStyle(true)
+                .build();
+        store = new S3ImageStore(client, "images");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void putGetAndDeleteRoundTrip() throws IOException {
+        Path file = Files.write(tempDir.resolve("upload.tmp"), new byte[] {1, 2, 3, 4, 5});
+
+        store.put("ab/cd/abcd.jpg", file, "image/jpeg");
+
+        assertThat(file).doesNotExist(); // the staging file is consumed
+        Resource resource = store.get("ab/cd/abcd.jpg");
+        assertThat(resource.contentLength()).isEqualTo(5);
+        assertThat(resource.getFilename()).isEqualTo("abcd.jpg");
+        try (InputStream in = resource.getInputStream()) {
+            assertThat(in.readAllBytes()).containsExactly(1, 2, 3, 4, 5);
+        }
+
+        store.delete("ab/cd/abcd.jpg");
+        assertThat(store.get("ab/cd/abcd.jpg")).isNull();
+    }
+
+    @Test
+    void putSkipsTheUploadWhenTheKeyAlreadyExists() throws IOException {
+        store.put("ab/cd/abcd.jpg", Files.write(tempDir.resolve("a.tmp"), new byte[] {1}), "image/jpeg");
+        store.put("ab/cd/abcd.jpg", Files.write(tempDir.resolve("b.tmp"), new byte[] {1}), "image/jpeg");
+
+        assertThat(puts).hasValue(1);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String key = exchange.getRequestURI().getPath().replaceFirst("^/images/", "");
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        String payloadHash = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (payloadHash != null && payloadHash.startsWith("STREAMING-")) {
+            body = decodeAwsChunked(body);
+        }
+        byte[] object = objects.get(key);
+        switch (exchange.getRequestMethod()) {
+            case "PUT" -> {
+                puts.incrementAndGet();
+                objects.put(key, body);
+                exchange.sendResponseHeaders(200, -1);
+            }
+            case "HEAD" -> {
+                if (object == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    exchange.getResponseHeaders().set("Content-Length", String.valueOf(object.length));
+                    exchange.getResponseHeaders().set("Last-Modified", "Sun, 18 Oct 2026 00:00:00 GMT");
+                    exchange.sendResponseHeaders(200, -1);
+                }
+            }
+            case "GET" -> {
+                if (object == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, object.length);
+                    exchange.getResponseBody().write(object);
+                }
+            }
+            case "DELETE" -> {
+                objects.remove(key);
+                exchange.sendResponseHeaders(204, -1);
+            }
+            default -> exchange.sendResponseHeaders(405, -1);
+        }
+        exchange.close();
+    }
+
+    // Signed streaming uploads frame the body as "<hex size>;chunk-signature=...\r\n<data>\r\n", ending with a 0-size chunk
+    private static byte[] decodeAwsChunked(byte[] framed) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int pos = 0;
+        while (pos < framed.length) {
+            int lineEnd = indexOfCrlf(framed, pos);
+            String header = new String(framed, pos, lineEnd - pos, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";", 2)[0].trim(), 16);
+            if (size == 0) {
+                break;
+            }
+            out.write(framed, lineEnd + 2, size);
+            pos = lineEnd + 2 + size + 2;
+        }
+        return out.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length - 1; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return bytes.length;
+    }
+}
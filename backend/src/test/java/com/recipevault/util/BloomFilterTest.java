@@ -0,0 +1,28 @@
+package com.recipevault.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void neverForgetsAnElementAndKeepsFalsePositivesNearTheTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01, 42);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("/uploads/present-" + i + ".jpg");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("/uploads/present-" + i + ".jpg")).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("/uploads/absent-" + i + ".jpg")) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(2_000); // 1% target, 2% tolerance
+        assertThat(filter.sizeInBytes()).isLessThan(16_000); // ~10 bits per element
+    }
+}
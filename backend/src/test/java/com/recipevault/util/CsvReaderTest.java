@@ -0,0 +1,44 @@
+package com.recipevault.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+    @Test
+    void readsQuotedFieldsWithEscapesAndLineBreaks() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(
+                "\uFEFFtitle,instructions\r\n\"Laksa, Penang\",\"Say \"\"hi\"\"\nthen simmer\"\nRendang,\n"), 1000);
+
+        assertThat(csv.next()).containsExactly("title", "instructions");
+        assertThat(csv.next()).containsExactly("Laksa, Penang", "Say \"hi\"\nthen simmer");
+        assertThat(csv.line()).isEqualTo(2);
+        assertThat(csv.next()).containsExactly("Rendang", "");
+        assertThat(csv.line()).isEqualTo(4);
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void skipsOversizedRecordsAndCarriesOn() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a,b\n" + "x".repeat(50) + ",y\nc,d"), 20);
+
+        assertThat(csv.next()).containsExactly("a", "b");
+        assertThatThrownBy(csv::next)
+                .isInstanceOfSatisfying(CsvReader.MalformedRecordException.class, e -> assertThat(e.getLine()).isEqualTo(2));
+        assertThat(csv.next()).containsExactly("c", "d");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void rejectsAnUnterminatedQuote() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("\"never closed,x\n"), 1000);
+
+        assertThatThrownBy(csv::next).isInstanceOf(CsvReader.MalformedRecordException.class);
+        assertThat(csv.next()).isNull();
+    }
+}
@@ -0,0 +1,51 @@
+package com.recipevault.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtUtilTest {
+    private static final String SECRET = "RECIPE_VAULT_SECRET_KEY_123456789";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, new SimpleMeterRegistry());
+
+    @Test
+    void verifiesAndCachesValidTokens() {
+        String token = jwtUtil.generateToken("gordon");
+
+        Claims first = jwtUtil.verify(token);
+        assertThat(first.getSubject()).isEqualTo("gordon");
+        assertThat(jwtUtil.verify(token)).isSameAs(first);
+    }
+
+    @Test
+    void cachedClaimsCannotBeChanged() {
+        Claims claims = jwtUtil.verify(jwtUtil.generateToken("gordon"));
+
+        assertThatThrownBy(() -> claims.setSubject("jamie")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> claims.put("sub", "jamie")).isInstanceOf(UnsupportedOperationException.class);
+        claims.getExpiration().setTime(0);
+        assertThat(claims.getSubject()).isEqualTo("gordon");
+        assertThat(claims.getExpiration()).isInTheFuture();
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        String token = jwtUtil.generateToken("gordon");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThat(jwtUtil.verify(tampered)).isNull();
+        assertThat(jwtUtil.verify("not-a-jwt")).isNull();
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        JwtUtil expiring = new JwtUtil(SECRET, -1_000, new SimpleMeterRegistry());
+
+        assertThat(expiring.verify(expiring.generateToken("gordon"))).isNull();
+    }
+}
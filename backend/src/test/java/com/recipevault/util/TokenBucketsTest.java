@@ -0,0 +1,95 @@
+package com.recipevault.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketsTest {
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void allowsTheBurstThenOneTokenPerInterval() {
+        TokenBuckets buckets = new TokenBuckets(100, Duration.ofMinutes(1), clock::get);
+        TokenBuckets.Rate rate = TokenBuckets.Rate.perMinute(60, 3); // one a second, three at once
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(buckets.tryAcquire("gordon", rate)).isZero();
+        }
+        assertThat(buckets.tryAcquire("gordon", rate)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(400));
+        assertThat(buckets.tryAcquire("gordon", rate)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(600));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        assertThat(buckets.tryAcquire("gordon", rate)).isZero();
+        assertThat(buckets.tryAcquire("gordon", rate)).isPositive();
+
+        // Other keys have buckets of their own
+        assertThat(buckets.tryAcquire("jamie", rate)).isZero();
+    }
+
+    @Test
+    void idleBucketsRefillAndAreDropped() {
+        TokenBuckets buckets = new TokenBuckets(100, Duration.ofSeconds(3), clock::get);
+        TokenBuckets.Rate rate = TokenBuckets.Rate.perMinute(60, 3);
+        for (int i = 0; i < 3; i++) {
+            buckets.tryAcquire("gordon", rate);
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        buckets.cleanUp();
+
+        assertThat(buckets.size()).isZero();
+        for (int i = 0; i < 3; i++) {
+            assertThat(buckets.tryAcquire("gordon", rate)).isZero();
+        }
+    }
+
+    @Test
+    void holdsNoMoreThanMaxKeys() {
+        TokenBuckets buckets = new TokenBuckets(1_000, Duration.ofMinutes(1), clock::get);
+        TokenBuckets.Rate rate = TokenBuckets.Rate.perMinute(60, 3);
+
+        for (int i = 0; i < 50_000; i++) {
+            buckets.tryAcquire("10.0." + (i >> 8) + "." + (i & 0xFF), rate);
+        }
+        buckets.cleanUp();
+
+        assertThat(buckets.size()).isLessThanOrEqualTo(1_000);
+    }
+
+    @Test
+    void concurrentCallersNeverTakeMoreThanTheBurst() throws Exception {
+        TokenBuckets buckets = new TokenBuckets(100, Duration.ofMinutes(1), clock::get);
+        TokenBuckets.Rate rate = TokenBuckets.Rate.perMinute(1, 500); // the clock is frozen, so only the burst is available
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService callers = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                callers.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 1_000; i++) {
+                        if (buckets.tryAcquire("gordon", rate) == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        }
+
+        assertThat(granted).hasValue(500);
+    }
+}
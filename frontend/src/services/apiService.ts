@@ -19,6 +19,47 @@ apiClient.interceptors.request.use((config) => {
   return config
 })
 
+export interface RecipeQuery {
+  title?: string
+  difficulty?: string
+  ingredientCount?: number
+  cursor?: string
+  size?: number
+}
+
+export interface RecipePage {
+  recipes: Recipe[]
+  nextCursor: string | null
+}
+
+const toImageUrl = (imageUrl?: string | null): string =>
+  imageUrl ? `${API_BASE_URL}${imageUrl}` : `${API_BASE_URL}/uploads/placeholder.jpg`
+
+const toRecipe = (recipe: any): Recipe => ({
+  id: recipe.id,
+  title: recipe.title,
+  difficulty: recipe.difficulty,
+  instructions: recipe.instructions,
+  // Image keys are sharded paths ("/uploads/ab/cd/<sha256>.jpg"), so keep everything after /uploads/
+  imageUrl: toImageUrl(recipe.imageUrl),
+  // Resized variants; the backend sends the original until they have been generated
+  cardImageUrl: toImageUrl(recipe.cardImageUrl ?? recipe.imageUrl),
+  detailImageUrl: toImageUrl(recipe.detailImageUrl ?? recipe.imageUrl),
+  createdDate: recipe.createdDate,
+  ingredients: recipe.ingredients.map((ing: any) => ing.ingredientName),
+  userId: recipe.userId,
+  fullName: recipe.fullName
+})
+
+// Backend returns { items, nextCursor } for keyset-paginated listings
+const toRecipePage = (data: any): RecipePage => ({
+  recipes: data.items.map(toRecipe),
+  nextCursor: data.nextCursor ?? null
+})
+
+// Last page and ETag per listing query, so a repeat fetch can be answered with a body-less 304
+const recipePageCache = new Map<string, { etag: string; page: RecipePage }>()
+
 export const apiService = {
 
   async login(credentials: { username: string; password: string }) {
@@ -26,31 +67,43 @@ export const apiService = {
     return response.data
   },
 
-  async fetchRecipes(): Promise<Recipe[]> {
+  async fetchRecipes(params: RecipeQuery = {}): Promise<RecipePage> {
     try {
-      const response = await apiClient.get("/recipes")
-      return response.data.map((recipe: any) => ({
-        id: recipe.id,
-        title: recipe.title,
-        difficulty: recipe.difficulty,
-        instructions: recipe.instructions,
-        imageUrl: recipe.imageUrl 
-            ? `${API_BASE_URL}/uploads/${recipe.imageUrl.split('/').pop()}` 
-            : `${API_BASE_URL}/uploads/placeholder.jpg`,
-        createdDate: recipe.createdDate,
-        ingredients: recipe.ingredients.map((ing: any) => ing.ingredientName),
-        userId: recipe.userId,
-        fullName: recipe.fullName
-      }))
+      const cacheKey = JSON.stringify(params)
+      const cached = recipePageCache.get(cacheKey)
+      const response = await apiClient.get("/recipes", {
+        params,
+        headers: cached ? { 'If-None-Match': cached.etag } : {},
+        validateStatus: (status) => (status >= 200 && status < 300) || status === 304
+      })
+      if (response.status === 304 && cached) {
+        return cached.page
+      }
+      const page = toRecipePage(response.data)
+      const etag = response.headers['etag']
+      if (etag) {
+        recipePageCache.set(cacheKey, { etag, page })
+      }
+      return page
     } catch (error) {
       console.error('Error fetching recipes:', error)
-      return []
+      return { recipes: [], nextCursor: null }
+    }
+  },
+
+  async fetchMyRecipes(params: { cursor?: string; size?: number } = {}): Promise<RecipePage> {
+    try {
+      const response = await apiClient.get("/recipes/my", { params })
+      return toRecipePage(response.data)
+    } catch (error) {
+      console.error('Error fetching my recipes:', error)
+      return { recipes: [], nextCursor: null }
     }
   },
 
   async fetchImage(imagePath: string): Promise<string> {
     try {
-      const response = await apiClient.get(`/uploads/${imagePath.split('/').pop()}`, {
+      const response = await apiClient.get(`/uploads/${imagePath.split('/uploads/').pop()}`, {
         responseType: 'blob' // Get the image as a binary blob
       })
       return URL.createObjectURL(response.data) // Convert to a usable URL
@@ -1,5 +1,5 @@
 import { defineStore } from 'pinia'
-import { apiService } from '../services/apiService'
+import { apiService, type RecipeQuery } from '../services/apiService'
 
 export interface Recipe {
   id: number
@@ -8,6 +8,8 @@ export interface Recipe {
   ingredients: string[]
   instructions: string
   imageUrl: string
+  cardImageUrl: string
+  detailImageUrl: string
   createdDate: string
   userId: number
   fullName: string
@@ -15,11 +17,27 @@ export interface Recipe {
 
 export const useRecipeStore = defineStore('recipeStore', {
   state: () => ({
-    recipes: [] as Recipe[]
+    recipes: [] as Recipe[],
+    nextCursor: null as string | null
   }),
   actions: {
-    async loadRecipes() {
-      this.recipes = await apiService.fetchRecipes()
+    // Loads a single page; pass the previous page's nextCursor to move forward
+    async loadRecipes(query: RecipeQuery = {}) {
+      const page = await apiService.fetchRecipes(query)
+      this.recipes = page.recipes
+      this.nextCursor = page.nextCursor
+    },
+    // Own recipes are few, so walk every page for the account statistics
+    async loadMyRecipes() {
+      const mine: Recipe[] = []
+      let cursor: string | undefined
+      do {
+        const page = await apiService.fetchMyRecipes({ cursor, size: 100 })
+        mine.push(...page.recipes)
+        cursor = page.nextCursor ?? undefined
+      } while (cursor)
+      this.recipes = mine
+      this.nextCursor = null
     },
     getRecipeById(id: number) {
       return this.recipes.find(recipe => recipe.id === id)